@@ -1,14 +1,72 @@
 
 import game.Game;
+import game.InputReplayer;
+import game.LevelDefinition;
+import game.Simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  *  main function game class.
+ *  With "--record file" the keys of the game are saved to the file when it ends, with "--seed n" the game
+ *  uses the given seed, with "--level file" the bricks are read from a level file, and with "--replay file"
+ *  a saved game is played again without a window, on the same level it was recorded on.
  */
 public class ArkanoidGame {
 
-    public static void main(String[] args) {
-        Game game = new Game();
-        game.initializeNewGame();
+    public static void main(String[] args) throws IOException {
+        Path record = null;
+        Path replay = null;
+        Long seed = null;
+        LevelDefinition level = null;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--record":
+                    record = Paths.get(args[++i]);
+                    break;
+                case "--replay":
+                    replay = Paths.get(args[++i]);
+                    break;
+                case "--level":
+                    level = LevelDefinition.load(Paths.get(args[++i]));
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        if (replay != null) {
+            replay(replay, level);
+            return;
+        }
+        Game game = (seed == null) ? new Game() : new Game(60, 60, seed);
+        if (level == null) {
+            game.initializeNewGame();
+        } else {
+            game.initializeNewGame(level);
+        }
         game.run();
+        if (record != null) {
+            game.getRecorder().save(record);
+        }
+    }
+
+    private static void replay(Path file, LevelDefinition level) throws IOException {
+        InputReplayer replayer = InputReplayer.load(file);
+        long start = System.nanoTime();
+        Simulation simulation = replayer.replay(level);
+        long millis = (System.nanoTime() - start) / 1000000L;
+        System.out.println("Replayed " + replayer.getTicks() + " ticks of seed " + replayer.getSeed() + " in "
+                + millis + " ms");
+        System.out.println("Score: " + simulation.getScore().getValue()
+                + ", blocks: " + simulation.getRemainingBlocks().getValue()
+                + ", balls: " + simulation.getRemainingBalls().getValue());
     }
-}
\ No newline at end of file
+}
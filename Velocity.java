@@ -2,7 +2,7 @@ package physics;
 
 import geometry.Point;
 
-import java.util.Random;
+import util.RandomSource;
 
 /**
  * This class  represent velocity.
@@ -61,6 +61,40 @@ public class Velocity {
         this.dy = dy;
     }
 
+    /**
+     * Change both axes of the velocity.
+     * @param dx - new x-axis speed.
+     * @param dy - new y-axis speed.
+     */
+    public void set(double dx, double dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * Change this velocity using angle and speed, without creating a new velocity.
+     * @param angle - the angle in degrees.
+     * @param speed - speed's vector length.
+     */
+    public void setFromAngleAndSpeed(double angle, double speed) {
+        this.dx = Math.cos(Math.toRadians(angle - 90)) * speed;
+        this.dy = Math.sin(Math.toRadians(angle - 90)) * speed;
+    }
+
+    /**
+     * Reflect the velocity off a horizontal surface, reversing the y-axis speed.
+     */
+    public void reflectHorizontal() {
+        this.dy = -this.dy;
+    }
+
+    /**
+     * Reflect the velocity off a vertical surface, reversing the x-axis speed.
+     */
+    public void reflectVertical() {
+        this.dx = -this.dx;
+    }
+
     /**
      * Set the velocity using angle and speed.
      * @param angle - the angle in degrees.
@@ -97,9 +131,33 @@ public class Velocity {
      * @return - new random velocity.
      */
     public static Velocity randVelocity() {
-        Random rnd = new Random();
+        return randVelocity(new RandomSource());
+    }
+
+    /**
+     * Generate random velocity using the given random source.
+     * max vector speed will be capped, angle won't be towards the bottom.
+     * @param rnd - source of the random values.
+     * @return - new random velocity.
+     */
+    public static Velocity randVelocity(RandomSource rnd) {
+        return randVelocity(rnd, 4, 8);
+    }
+
+    /**
+     * Generate random velocity with a whole speed in the given range, using the given random source.
+     * Angle won't be towards the bottom.
+     * @param rnd - source of the random values.
+     * @param minSpeed - lowest speed, included.
+     * @param maxSpeed - highest speed, included.
+     * @return - new random velocity.
+     */
+    public static Velocity randVelocity(RandomSource rnd, int minSpeed, int maxSpeed) {
+        if (minSpeed <= 0 || maxSpeed < minSpeed) {
+            throw new IllegalArgumentException("Speed range must be positive and not empty");
+        }
         double angle = 180 * rnd.nextDouble();
-        double speed = rnd.nextInt(5) + 4;
+        double speed = rnd.nextInt(maxSpeed - minSpeed + 1) + minSpeed;
         return Velocity.fromAngleAndSpeed(angle, speed);
     }
 
@@ -116,6 +174,16 @@ public class Velocity {
         return new Point(p.getX() + dx, p.getY() + dy);
     }
 
+    /**
+     * Move a point according to the velocity, changing its coordinates instead of creating a new point.
+     * @param p - the point to move.
+     */
+    public void applyInPlace(Point p) {
+        if (p != null) {
+            p.set(p.getX() + dx, p.getY() + dy);
+        }
+    }
+
     /**
      * Returns a string representation of the current velocity.
      * @return a formatted string describing the velocity
@@ -0,0 +1,69 @@
+package bench;
+
+import game.BallSystem;
+import game.GameEnvironment;
+import graphics.SpriteCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of one step of many balls, kept as ball objects or in a ball system.
+ * A tick of 60 Hz has about 16 milliseconds, so the step of all the balls should take less than that.
+ * The blocks have no listeners, so the balls bounce forever and every step costs about the same.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BallSystemBenchmark {
+    private static final long SEED = 42;
+    private static final int BLOCKS = 1000;
+
+    @Param({"1000", "50000"})
+    private int balls;
+
+    @Param({"objects", "system", "parallel"})
+    private String layout;
+
+    private SpriteCollection sprites;
+    private BallSystem system;
+
+    /**
+     * Build the seeded world with its balls.
+     */
+    @Setup
+    public void setUp() {
+        GameEnvironment environment = new GameEnvironment();
+        Worlds.addBounds(environment, null);
+        Worlds.addBlocks(environment, null, BLOCKS);
+        this.sprites = new SpriteCollection();
+        if ("objects".equals(this.layout)) {
+            Worlds.addBalls(environment, this.sprites, this.balls, SEED);
+        } else {
+            this.system = Worlds.addBallSystem(environment, this.balls, SEED);
+            this.system.setParallel("parallel".equals(this.layout));
+            this.sprites.addSprite(this.system);
+        }
+    }
+
+    /**
+     * Move every ball one step.
+     */
+    @Benchmark
+    public void step() {
+        this.sprites.notifyAllTimePassed();
+    }
+}
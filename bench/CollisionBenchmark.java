@@ -0,0 +1,105 @@
+package bench;
+
+import game.AabbTree;
+import game.Block;
+import game.GameEnvironment;
+import game.InputPort;
+import game.Paddle;
+import geometry.Ball;
+import geometry.Point;
+import geometry.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import physics.Velocity;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the collision queries of the game environment and of the collidables' hit responses.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    private static final int TRAJECTORIES = 1024;
+    private static final long SEED = 42;
+
+    @Param({"100", "1000", "10000"})
+    private int blocks;
+
+    @Param({"grid", "tree"})
+    private String index;
+
+    private GameEnvironment environment;
+    private double[] trajectories;
+    private Block block;
+    private Paddle paddle;
+    private Ball ball;
+    private Point blockHitPoint;
+    private Point paddleHitPoint;
+    private Velocity velocity;
+
+    /**
+     * Build the seeded world, its trajectories and the objects to hit.
+     */
+    @Setup
+    public void setUp() {
+        this.environment = "tree".equals(this.index) ? new GameEnvironment(new AabbTree()) : new GameEnvironment();
+        Worlds.addBounds(this.environment, null);
+        Worlds.addBlocks(this.environment, null, this.blocks);
+        this.trajectories = Worlds.trajectories(TRAJECTORIES, SEED);
+
+        this.block = new Block(new Rectangle(new Point(100, 100), 50, 20), Color.PINK);
+        Rectangle paddleRec = new Rectangle(new Point(360, 583), 80, 7);
+        InputPort noKeys = () -> 0;
+        this.paddle = new Paddle(new Block(paddleRec, Color.ORANGE), noKeys, Worlds.WIDTH, this.environment);
+        this.ball = new Ball(new Point(0, 0), 8, Color.PINK, new Velocity(3, 4));
+        this.blockHitPoint = new Point(120, 100);
+        this.paddleHitPoint = new Point(400, 583);
+        this.velocity = new Velocity(3, 4);
+    }
+
+    /**
+     * Find the closest collision of every trajectory.
+     * @param bh - sink for the results.
+     */
+    @Benchmark
+    public void getClosestCollision(Blackhole bh) {
+        double[] t = this.trajectories;
+        for (int i = 0; i < t.length; i += 4) {
+            bh.consume(this.environment.getClosestCollision(t[i], t[i + 1], t[i + 2], t[i + 3]));
+        }
+    }
+
+    /**
+     * Hit the top of a block.
+     * @return - the new velocity.
+     */
+    @Benchmark
+    public Velocity blockHit() {
+        return this.block.hit(this.ball, this.blockHitPoint, this.velocity);
+    }
+
+    /**
+     * Hit the middle of the paddle's top.
+     * @return - the new velocity.
+     */
+    @Benchmark
+    public Velocity paddleHit() {
+        return this.paddle.hit(this.ball, this.paddleHitPoint, this.velocity);
+    }
+}
@@ -0,0 +1,101 @@
+package bench;
+
+import geometry.Line;
+import geometry.Point;
+import geometry.RayHit;
+import geometry.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the line and rectangle calculations every collision query is made of.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+    private static final int TRAJECTORIES = 1024;
+    private static final long SEED = 42;
+
+    private Line[] lines;
+    private Point[] points;
+    private Rectangle rectangle;
+    private Line side;
+    private RayHit rayHit;
+
+    /**
+     * Build the seeded trajectories and a block sized rectangle in the middle of them.
+     */
+    @Setup
+    public void setUp() {
+        double[] values = Worlds.trajectories(TRAJECTORIES, SEED);
+        this.lines = new Line[TRAJECTORIES];
+        this.points = new Point[TRAJECTORIES];
+        for (int i = 0; i < TRAJECTORIES; i++) {
+            this.lines[i] = new Line(new Point(values[i * 4], values[i * 4 + 1]),
+                    new Point(values[i * 4 + 2], values[i * 4 + 3]));
+            this.points[i] = new Point(values[i * 4], values[i * 4 + 1]);
+        }
+        this.rectangle = new Rectangle(new Point(300, 250), 200, 100);
+        this.side = this.rectangle.getTopLine();
+        this.rayHit = new RayHit();
+    }
+
+    /**
+     * Intersect every trajectory with the top side of the rectangle.
+     * @param bh - sink for the results.
+     */
+    @Benchmark
+    public void lineIntersectionWith(Blackhole bh) {
+        for (Line line : this.lines) {
+            bh.consume(line.intersectionWith(this.side));
+        }
+    }
+
+    /**
+     * Check every trajectory start point against the top side of the rectangle.
+     * @param bh - sink for the results.
+     */
+    @Benchmark
+    public void lineIsOnLine(Blackhole bh) {
+        for (Point point : this.points) {
+            bh.consume(this.side.isOnLine(point));
+        }
+    }
+
+    /**
+     * Intersect every trajectory with all sides of the rectangle.
+     * @param bh - sink for the results.
+     */
+    @Benchmark
+    public void rectangleIntersectionPoints(Blackhole bh) {
+        for (Line line : this.lines) {
+            bh.consume(this.rectangle.intersectionPoints(line));
+        }
+    }
+
+    /**
+     * Cast every trajectory on the rectangle with the allocation free ray cast.
+     * @param bh - sink for the results.
+     */
+    @Benchmark
+    public void rectangleCastRay(Blackhole bh) {
+        for (Line line : this.lines) {
+            bh.consume(this.rectangle.castRay(line.startX(), line.startY(), line.endX(), line.endY(), this.rayHit));
+        }
+    }
+}
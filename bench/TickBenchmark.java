@@ -0,0 +1,59 @@
+package bench;
+
+import game.GameEnvironment;
+import graphics.SpriteCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of one full tick of a seeded world.
+ * The blocks have no listeners, so the world doesn't change and every tick costs about the same.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"100", "1000", "10000"})
+    private int blocks;
+
+    @Param({"3", "100"})
+    private int balls;
+
+    private SpriteCollection sprites;
+
+    /**
+     * Build the seeded world.
+     */
+    @Setup
+    public void setUp() {
+        GameEnvironment environment = new GameEnvironment();
+        this.sprites = new SpriteCollection();
+        Worlds.addBounds(environment, this.sprites);
+        Worlds.addBlocks(environment, this.sprites, this.blocks);
+        Worlds.addBalls(environment, this.sprites, this.balls, SEED);
+    }
+
+    /**
+     * Notify all sprites that time passed.
+     */
+    @Benchmark
+    public void notifyAllTimePassed() {
+        this.sprites.notifyAllTimePassed();
+    }
+}
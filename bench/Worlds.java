@@ -0,0 +1,134 @@
+package bench;
+
+import game.BallSystem;
+import game.Block;
+import game.GameEnvironment;
+import geometry.Ball;
+import geometry.Point;
+import geometry.Rectangle;
+import graphics.SpriteCollection;
+import physics.Velocity;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class builds seeded worlds for the benchmarks.
+ * A world is the game's screen with its four bounds and a field of blocks, all of them plain blocks
+ * without listeners, so balls bounce forever and every tick does the same amount of work.
+ */
+public final class Worlds {
+    static final int WIDTH = 800;
+    static final int HEIGHT = 600;
+    static final int BOUNDS = 10;
+
+    private Worlds() {
+    }
+
+    /**
+     * Add the four bounds of the screen to the environment.
+     * @param environment - environment to add to.
+     * @param sprites - sprites to add to, may be null.
+     */
+    static void addBounds(GameEnvironment environment, SpriteCollection sprites) {
+        add(new Block(new Rectangle(new Point(0, 20), BOUNDS, HEIGHT), Color.LIGHT_GRAY), environment, sprites);
+        add(new Block(new Rectangle(new Point(WIDTH - BOUNDS, 20), BOUNDS, HEIGHT), Color.LIGHT_GRAY),
+                environment, sprites);
+        add(new Block(new Rectangle(new Point(0, 20), WIDTH, BOUNDS), Color.LIGHT_GRAY), environment, sprites);
+        add(new Block(new Rectangle(new Point(0, HEIGHT + BOUNDS), WIDTH, BOUNDS), Color.LIGHT_GRAY),
+                environment, sprites);
+    }
+
+    /**
+     * Fill the upper part of the screen with a grid of blocks.
+     * @param environment - environment to add to.
+     * @param sprites - sprites to add to, may be null.
+     * @param count - amount of blocks.
+     * @return - the blocks that were added.
+     */
+    static List<Block> addBlocks(GameEnvironment environment, SpriteCollection sprites, int count) {
+        int columns = (int) Math.ceil(Math.sqrt(count * 4.0));
+        double width = (WIDTH - 2.0 * BOUNDS) / columns;
+        double height = width / 2;
+        List<Block> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Point upperLeft = new Point(BOUNDS + (i % columns) * width, 60 + (i / columns) * height);
+            Block block = new Block(new Rectangle(upperLeft, width, height), Color.PINK);
+            add(block, environment, sprites);
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * Create balls at seeded random places under the blocks.
+     * @param environment - environment the balls collide with.
+     * @param sprites - sprites to add the balls to, may be null.
+     * @param count - amount of balls.
+     * @param seed - seed of the random places and velocities.
+     * @return - the balls that were created.
+     */
+    static List<Ball> addBalls(GameEnvironment environment, SpriteCollection sprites, int count, long seed) {
+        Random rnd = new Random(seed);
+        List<Ball> balls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Point center = new Point(BOUNDS + 10 + rnd.nextInt(WIDTH - 2 * BOUNDS - 20), 400 + rnd.nextInt(150));
+            Velocity velocity = Velocity.fromAngleAndSpeed(360 * rnd.nextDouble(), rnd.nextInt(5) + 4);
+            Ball ball = new Ball(center, 8, Color.PINK, velocity);
+            ball.setGameEnvironment(environment);
+            if (sprites != null) {
+                sprites.addSprite(ball);
+            }
+            balls.add(ball);
+        }
+        return balls;
+    }
+
+    /**
+     * Create a ball system with the same balls addBalls creates for the same seed.
+     * @param environment - environment the balls collide with.
+     * @param count - amount of balls.
+     * @param seed - seed of the random places and velocities.
+     * @return - the ball system.
+     */
+    static BallSystem addBallSystem(GameEnvironment environment, int count, long seed) {
+        Random rnd = new Random(seed);
+        BallSystem system = new BallSystem(environment, count);
+        for (int i = 0; i < count; i++) {
+            Point center = new Point(BOUNDS + 10 + rnd.nextInt(WIDTH - 2 * BOUNDS - 20), 400 + rnd.nextInt(150));
+            Velocity velocity = Velocity.fromAngleAndSpeed(360 * rnd.nextDouble(), rnd.nextInt(5) + 4);
+            system.addBall(center, 8, Color.PINK, velocity);
+        }
+        return system;
+    }
+
+    /**
+     * Create seeded random trajectories of one ball step inside the screen.
+     * @param count - amount of trajectories.
+     * @param seed - seed of the random trajectories.
+     * @return - array of start x, start y, end x and end y values, 4 per trajectory.
+     */
+    static double[] trajectories(int count, long seed) {
+        Random rnd = new Random(seed);
+        double[] values = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            double x = BOUNDS + rnd.nextDouble() * (WIDTH - 2 * BOUNDS);
+            double y = 30 + rnd.nextDouble() * (HEIGHT - 30);
+            Velocity velocity = Velocity.fromAngleAndSpeed(360 * rnd.nextDouble(), rnd.nextInt(5) + 4);
+            values[i * 4] = x;
+            values[i * 4 + 1] = y;
+            values[i * 4 + 2] = x + velocity.getDx();
+            values[i * 4 + 3] = y + velocity.getDy();
+        }
+        return values;
+    }
+
+    private static void add(Block block, GameEnvironment environment, SpriteCollection sprites) {
+        environment.addCollidable(block);
+        if (sprites != null) {
+            sprites.addSprite(block);
+        }
+    }
+}
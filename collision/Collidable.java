@@ -3,6 +3,7 @@ package collision;
 import game.Block;
 import geometry.Ball;
 import geometry.Point;
+import geometry.RayHit;
 import geometry.Rectangle;
 import physics.Velocity;
 
@@ -17,6 +18,35 @@ public interface Collidable {
      */
     Rectangle getCollisionRectangle();
 
+    /**
+     * Cast a circle moving from start to end on the object, without allocating.
+     * By default the ray of the center is cast on the collision rectangle grown by the radius with rounded corners,
+     * and the hit point is the touched point of the rectangle itself. Objects made of several parts can check only
+     * the parts on the way.
+     * Must not change the object, so several threads can cast on it together.
+     * @param startX - x value of the center at the start of the movement.
+     * @param startY - y value of the center at the start of the movement.
+     * @param endX - x value of the center at the end of the movement.
+     * @param endY - y value of the center at the end of the movement.
+     * @param radius - radius of the circle, 0 for a point.
+     * @param hit - result to fill with the time of the hit and the point of the object that is touched.
+     * @return - true if the object is hit between the start and the end, otherwise false.
+     */
+    default boolean castRay(double startX, double startY, double endX, double endY, double radius, RayHit hit) {
+        Rectangle rect = getCollisionRectangle();
+        if (radius > 0) {
+            return Rectangle.castCircleOnBox(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY(), radius,
+                    startX, startY, endX, endY, hit);
+        }
+        if (!rect.castRay(startX, startY, endX, endY, 0, hit)) {
+            return false;
+        }
+        //Move the hit point onto the rectangle, a ray within the threshold of a side may pass it.
+        hit.set(hit.getTime(), Math.max(rect.getMinX(), Math.min(rect.getMaxX(), hit.getX())),
+                Math.max(rect.getMinY(), Math.min(rect.getMaxY(), hit.getY())), hit.getSide());
+        return true;
+    }
+
     /**
      * Gets the block involved in the collision.
      * @return - block of the collision.
@@ -8,7 +8,16 @@ import geometry.Point;
 public class CollisionInfo {
 
     private final Point collisionPoint;
-    private final Collidable collidable;
+    private Collidable collidable;
+    private double collisionTime;
+    private int collisionSide;
+
+    /**
+     * Constructor for an empty info that is filled again by every query using it.
+     */
+    public CollisionInfo() {
+        this(new Point(0, 0), null, Double.NaN);
+    }
 
     /**
      * Constructor for the class.
@@ -16,8 +25,47 @@ public class CollisionInfo {
      * @param collidable - an object we can collide with
      */
     public CollisionInfo(Point collisionPoint, Collidable collidable) {
+        this(collisionPoint, collidable, Double.NaN);
+    }
+
+    /**
+     * Constructor for the class with the time of the collision.
+     * @param collisionPoint - the point of collision.
+     * @param collidable - an object we can collide with
+     * @param collisionTime - fraction of the trajectory passed before the collision, between 0 and 1.
+     */
+    public CollisionInfo(Point collisionPoint, Collidable collidable, double collisionTime) {
         this.collisionPoint = collisionPoint;
         this.collidable = collidable;
+        this.collisionTime = collisionTime;
+        this.collisionSide = -1;
+    }
+
+    /**
+     * Fill the info with a new collision, changing the collision point instead of creating a new one.
+     * @param x - x value of the point of collision.
+     * @param y - y value of the point of collision.
+     * @param c - the object we collided with.
+     * @param time - fraction of the trajectory passed before the collision, between 0 and 1.
+     */
+    public void set(double x, double y, Collidable c, double time) {
+        this.collisionPoint.set(x, y);
+        this.collidable = c;
+        this.collisionTime = time;
+        this.collisionSide = -1;
+    }
+
+    /**
+     * Fill the info with a new collision and the side of the collidable that was hit.
+     * @param x - x value of the point of collision.
+     * @param y - y value of the point of collision.
+     * @param c - the object we collided with.
+     * @param time - fraction of the trajectory passed before the collision, between 0 and 1.
+     * @param side - side that was hit, one of the sides of the ray hit class.
+     */
+    public void set(double x, double y, Collidable c, double time, int side) {
+        set(x, y, c, time);
+        this.collisionSide = side;
     }
 
     /**
@@ -35,4 +83,20 @@ public class CollisionInfo {
     public Collidable collisionObject() {
         return collidable;
     }
+
+    /**
+     * Get the time at which the collision occurred.
+     * @return - fraction of the trajectory passed before the collision, NaN if unknown.
+     */
+    public double collisionTime() {
+        return collisionTime;
+    }
+
+    /**
+     * Get the side of the collidable that was hit.
+     * @return - one of the sides of the ray hit class, -1 if unknown.
+     */
+    public int collisionSide() {
+        return collisionSide;
+    }
 }
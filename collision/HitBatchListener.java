@@ -0,0 +1,13 @@
+package collision;
+
+/**
+ * This interface is for hit listeners that want to know when a batch of hit events was delivered,
+ * for example to apply the changes of all the hits of a tick at once.
+ */
+public interface HitBatchListener extends HitListener {
+
+    /**
+     * Called once after the last hit event of a batch was delivered to this listener.
+     */
+    void hitBatchEnded();
+}
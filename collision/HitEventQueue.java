@@ -0,0 +1,138 @@
+package collision;
+
+import game.Block;
+import geometry.Ball;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class queues the hit events of a tick in a ring buffer and delivers them together when drained.
+ * Each event is delivered to the listeners its notifier has when the queue is drained, so a block that was
+ * removed by an earlier event of the same tick doesn't notify again. Listeners that want to know when all
+ * the events of a drain were delivered implement the hit batch listener interface. Blocks and balls that stand
+ * for many, like the bricks of a brick grid, are kept with their event ids and found again when delivered.
+ * Adding an event doesn't allocate once the buffer is big enough. The class isn't thread safe.
+ */
+public class HitEventQueue {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private HitListenerList[] targets;
+    private Block[] blocks;
+    private int[] blockIds;
+    private Ball[] balls;
+    private int[] ballIds;
+    private int head;
+    private int count;
+    private final List<HitBatchListener> batchListeners;
+
+    /**
+     * Default constructor for an empty queue.
+     */
+    public HitEventQueue() {
+        this.targets = new HitListenerList[INITIAL_CAPACITY];
+        this.blocks = new Block[INITIAL_CAPACITY];
+        this.blockIds = new int[INITIAL_CAPACITY];
+        this.balls = new Ball[INITIAL_CAPACITY];
+        this.ballIds = new int[INITIAL_CAPACITY];
+        this.batchListeners = new ArrayList<>();
+    }
+
+    /**
+     * Add a hit event to the end of the queue.
+     * @param target - listeners of the notifier of the hit.
+     * @param beingHit - block that is being hit.
+     * @param hitter - ball that hit.
+     */
+    public void add(HitListenerList target, Block beingHit, Ball hitter) {
+        if (this.count == this.targets.length) {
+            grow();
+        }
+        int tail = (this.head + this.count) % this.targets.length;
+        this.targets[tail] = target;
+        this.blocks[tail] = beingHit;
+        this.blockIds[tail] = beingHit.getEventId();
+        this.balls[tail] = hitter;
+        this.ballIds[tail] = hitter.getEventId();
+        this.count++;
+    }
+
+    /**
+     * Get the amount of events waiting in the queue.
+     * @return - number of events.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Deliver the queued events in the order they were added, then end the batch of every batch listener
+     * that got an event. Events added while draining are delivered in the same drain.
+     */
+    public void drain() {
+        while (this.count > 0) {
+            HitListenerList target = this.targets[this.head];
+            Block beingHit = this.blocks[this.head].fromEventId(this.blockIds[this.head]);
+            Ball hitter = this.balls[this.head].fromEventId(this.ballIds[this.head]);
+            this.targets[this.head] = null;
+            this.blocks[this.head] = null;
+            this.balls[this.head] = null;
+            this.head = (this.head + 1) % this.targets.length;
+            this.count--;
+            //The ball or the block is gone if it was removed by an earlier event.
+            if (hitter == null || !beingHit.isHittable()) {
+                continue;
+            }
+            for (HitListener hl : target.toArray()) {
+                hl.hitEvent(beingHit, hitter);
+                if (hl instanceof HitBatchListener && !containsBatchListener((HitBatchListener) hl)) {
+                    this.batchListeners.add((HitBatchListener) hl);
+                }
+            }
+        }
+        for (int i = 0; i < this.batchListeners.size(); i++) {
+            this.batchListeners.get(i).hitBatchEnded();
+        }
+        this.batchListeners.clear();
+    }
+
+    private boolean containsBatchListener(HitBatchListener hl) {
+        for (int i = 0; i < this.batchListeners.size(); i++) {
+            if (this.batchListeners.get(i) == hl) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Double the buffer, moving the queued events to its start.
+     */
+    private void grow() {
+        int capacity = this.targets.length * 2;
+        this.targets = unwrap(this.targets, capacity);
+        this.blocks = unwrap(this.blocks, capacity);
+        this.balls = unwrap(this.balls, capacity);
+        this.blockIds = unwrap(this.blockIds, capacity);
+        this.ballIds = unwrap(this.ballIds, capacity);
+        this.head = 0;
+    }
+
+    private int[] unwrap(int[] buffer, int capacity) {
+        int[] result = new int[capacity];
+        for (int i = 0; i < this.count; i++) {
+            result[i] = buffer[(this.head + i) % buffer.length];
+        }
+        return result;
+    }
+
+    private <T> T[] unwrap(T[] buffer, int capacity) {
+        T[] result = Arrays.copyOf(buffer, capacity);
+        Arrays.fill(result, null);
+        for (int i = 0; i < this.count; i++) {
+            result[i] = buffer[(this.head + i) % buffer.length];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package collision;
+
+import game.Block;
+import geometry.Ball;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the hit listeners of one hit notifier in a copy on write array.
+ * Adding or removing a listener creates a new array, so notifying never copies the listeners and
+ * listeners can be added or removed while they are notified.
+ */
+public class HitListenerList {
+    private static final HitListener[] EMPTY = new HitListener[0];
+
+    private HitListener[] listeners;
+
+    /**
+     * Default constructor for an empty list.
+     */
+    public HitListenerList() {
+        this.listeners = EMPTY;
+    }
+
+    /**
+     * Add a listener to the end of the list.
+     * @param hl - listener to be added.
+     */
+    public void add(HitListener hl) {
+        if (hl == null) {
+            return;
+        }
+        HitListener[] updated = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        updated[this.listeners.length] = hl;
+        this.listeners = updated;
+    }
+
+    /**
+     * Remove the first appearance of a listener.
+     * @param hl - listener to be removed.
+     */
+    public void remove(HitListener hl) {
+        for (int i = 0; i < this.listeners.length; i++) {
+            if (this.listeners[i].equals(hl)) {
+                HitListener[] updated = new HitListener[this.listeners.length - 1];
+                System.arraycopy(this.listeners, 0, updated, 0, i);
+                System.arraycopy(this.listeners, i + 1, updated, i, updated.length - i);
+                this.listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove all the listeners.
+     */
+    public void clear() {
+        this.listeners = EMPTY;
+    }
+
+    /**
+     * Get the amount of listeners.
+     * @return - number of listeners.
+     */
+    public int size() {
+        return this.listeners.length;
+    }
+
+    /**
+     * Check if there are no listeners.
+     * @return - true if the list is empty.
+     */
+    public boolean isEmpty() {
+        return this.listeners.length == 0;
+    }
+
+    /**
+     * Get the listeners, the returned array is never changed.
+     * @return - array of the current listeners.
+     */
+    HitListener[] toArray() {
+        return this.listeners;
+    }
+
+    /**
+     * Notify every listener about a hit right away, as a batch of one hit.
+     * @param beingHit - block that is being hit.
+     * @param hitter - ball that hit.
+     */
+    public void notifyHit(Block beingHit, Ball hitter) {
+        HitListener[] current = this.listeners;
+        for (HitListener hl : current) {
+            hl.hitEvent(beingHit, hitter);
+        }
+        for (HitListener hl : current) {
+            if (hl instanceof HitBatchListener) {
+                ((HitBatchListener) hl).hitBatchEnded();
+            }
+        }
+    }
+
+    /**
+     * Notify the listeners about a hit through a queue, or right away if there is no queue.
+     * @param queue - queue of the game the notifier is in, may be null.
+     * @param beingHit - block that is being hit.
+     * @param hitter - ball that hit.
+     */
+    public void notifyHit(HitEventQueue queue, Block beingHit, Ball hitter) {
+        if (this.listeners.length == 0) {
+            return;
+        }
+        if (queue == null) {
+            notifyHit(beingHit, hitter);
+        } else {
+            queue.add(this, beingHit, hitter);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package collision;
+
+import game.Block;
+import geometry.Ball;
+import util.FrameProfiler;
+
+/**
+ * This class measures the time another hit listener takes to handle each hit.
+ */
+public class ProfiledHitListener implements HitBatchListener {
+    private HitListener listener;
+    private FrameProfiler profiler;
+
+    /**
+     * Constructor for the class.
+     * @param listener - the listener to measure.
+     * @param profiler - where to record the durations.
+     */
+    public ProfiledHitListener(HitListener listener, FrameProfiler profiler) {
+        this.listener = listener;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void hitEvent(Block beingHit, Ball hitter) {
+        long start = this.profiler.start();
+        this.listener.hitEvent(beingHit, hitter);
+        this.profiler.end(FrameProfiler.LISTENERS, start);
+    }
+
+    @Override
+    public void hitBatchEnded() {
+        if (this.listener instanceof HitBatchListener) {
+            long start = this.profiler.start();
+            ((HitBatchListener) this.listener).hitBatchEnded();
+            this.profiler.end(FrameProfiler.LISTENERS, start);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package game;
+
+import collision.Collidable;
+import geometry.Rectangle;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a dynamic bounding volume tree of collidable objects.
+ * Every leaf holds a collidable with a box fattened by a margin, so small moves of the collidable
+ * (like the paddle's) don't change the tree. Only when a collidable leaves its fat box it is
+ * removed and inserted again, and the boxes of its ancestors are refitted.
+ * After every insert and remove the ancestors are rotated where one child is more than one level taller than the
+ * other, so the tree stays balanced even when the collidables are added in sorted order, like rows of bricks.
+ */
+public class AabbTree implements CollidableIndex {
+    //Margin around boxes and trajectories, bigger than the threshold used by the line class.
+    private static final double MARGIN = 0.001;
+    private static final double DEFAULT_FAT_MARGIN = 10;
+
+    private final double fatMargin;
+    private final Map<Collidable, Node> leaves;
+    private Node root;
+
+    /**
+     * Default constructor for the tree, leaves are fattened by the default margin.
+     */
+    public AabbTree() {
+        this(DEFAULT_FAT_MARGIN);
+    }
+
+    /**
+     * Constructor for the tree.
+     * @param fatMargin - distance added on each side of the leaves' boxes.
+     */
+    public AabbTree(double fatMargin) {
+        if (fatMargin < 0) {
+            throw new IllegalArgumentException("Fat margin can't be negative");
+        }
+        this.fatMargin = fatMargin;
+        this.leaves = new IdentityHashMap<>();
+        this.root = null;
+    }
+
+    @Override
+    public void insert(Collidable c) {
+        if (c == null || this.leaves.containsKey(c)) {
+            return;
+        }
+        Node leaf = new Node();
+        leaf.collidable = c;
+        setFatBox(leaf);
+        this.leaves.put(c, leaf);
+        insertLeaf(leaf);
+    }
+
+    @Override
+    public void remove(Collidable c) {
+        Node leaf = this.leaves.remove(c);
+        if (leaf != null) {
+            removeLeaf(leaf);
+        }
+    }
+
+    @Override
+    public void update(Collidable c) {
+        Node leaf = this.leaves.get(c);
+        if (leaf == null) {
+            return;
+        }
+        Rectangle rect = c.getCollisionRectangle();
+        if (rect.getMinX() >= leaf.minX && rect.getMinY() >= leaf.minY
+                && rect.getMaxX() <= leaf.maxX && rect.getMaxY() <= leaf.maxY) {
+            //Still inside the fat box, nothing to do.
+            return;
+        }
+        removeLeaf(leaf);
+        setFatBox(leaf);
+        insertLeaf(leaf);
+    }
+
+    /**
+     * Get the height of the tree, the amount of nodes on its longest path from the root to a leaf.
+     * @return - height of the tree, 0 for an empty tree.
+     */
+    public int getHeight() {
+        return this.root == null ? 0 : this.root.height + 1;
+    }
+
+    @Override
+    public void query(double startX, double startY, double endX, double endY, double radius, CollisionQuery query) {
+        query.newRound();
+        if (this.root == null) {
+            return;
+        }
+        double margin = MARGIN + radius;
+        double slope = startX == endX ? Double.POSITIVE_INFINITY : (endY - startY) / (endX - startX);
+        query(this.root, Math.min(startX, endX) - margin, Math.min(startY, endY) - margin,
+                Math.max(startX, endX) + margin, Math.max(startY, endY) + margin,
+                slope, startY - slope * startX, margin * (1 + Math.abs(slope)), query.getCandidates());
+    }
+
+    /**
+     * Collect the leaves under the node whose boxes touch the trajectory.
+     * The trajectory is given by its bounding box and, unless it is vertical, by y = slope * x + intercept.
+     */
+    private void query(Node node, double minX, double minY, double maxX, double maxY,
+                       double slope, double intercept, double tolerance, List<Collidable> candidates) {
+        if (node.minX > maxX || node.maxX < minX || node.minY > maxY || node.maxY < minY) {
+            return;
+        }
+        if (!Double.isInfinite(slope)) {
+            //Skip the box if all of its corners are on the same side of the trajectory.
+            double d1 = node.minY - (slope * node.minX + intercept);
+            double d2 = node.minY - (slope * node.maxX + intercept);
+            double d3 = node.maxY - (slope * node.minX + intercept);
+            double d4 = node.maxY - (slope * node.maxX + intercept);
+            if ((d1 > tolerance && d2 > tolerance && d3 > tolerance && d4 > tolerance)
+                    || (d1 < -tolerance && d2 < -tolerance && d3 < -tolerance && d4 < -tolerance)) {
+                return;
+            }
+        }
+        if (node.isLeaf()) {
+            candidates.add(node.collidable);
+            return;
+        }
+        query(node.child1, minX, minY, maxX, maxY, slope, intercept, tolerance, candidates);
+        query(node.child2, minX, minY, maxX, maxY, slope, intercept, tolerance, candidates);
+    }
+
+    private void setFatBox(Node leaf) {
+        Rectangle rect = leaf.collidable.getCollisionRectangle();
+        leaf.minX = rect.getMinX() - this.fatMargin - MARGIN;
+        leaf.minY = rect.getMinY() - this.fatMargin - MARGIN;
+        leaf.maxX = rect.getMaxX() + this.fatMargin + MARGIN;
+        leaf.maxY = rect.getMaxY() + this.fatMargin + MARGIN;
+    }
+
+    /**
+     * Insert a leaf next to the sibling that grows the tree's perimeter the least.
+     */
+    private void insertLeaf(Node leaf) {
+        if (this.root == null) {
+            this.root = leaf;
+            leaf.parent = null;
+            return;
+        }
+        Node sibling = this.root;
+        while (!sibling.isLeaf()) {
+            double combined = unionPerimeter(sibling, leaf);
+            //Cost of making a new parent for this node and the leaf.
+            double cost = 2 * combined;
+            //Minimum cost of pushing the leaf further down the tree.
+            double inheritance = 2 * (combined - sibling.perimeter());
+            double cost1 = descendCost(sibling.child1, leaf) + inheritance;
+            double cost2 = descendCost(sibling.child2, leaf) + inheritance;
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+            sibling = cost1 < cost2 ? sibling.child1 : sibling.child2;
+        }
+
+        Node oldParent = sibling.parent;
+        Node newParent = new Node();
+        newParent.parent = oldParent;
+        newParent.child1 = sibling;
+        newParent.child2 = leaf;
+        sibling.parent = newParent;
+        leaf.parent = newParent;
+        if (oldParent == null) {
+            this.root = newParent;
+        } else if (oldParent.child1 == sibling) {
+            oldParent.child1 = newParent;
+        } else {
+            oldParent.child2 = newParent;
+        }
+        refit(newParent);
+    }
+
+    private void removeLeaf(Node leaf) {
+        if (leaf == this.root) {
+            this.root = null;
+            return;
+        }
+        Node parent = leaf.parent;
+        Node grandParent = parent.parent;
+        Node sibling = parent.child1 == leaf ? parent.child2 : parent.child1;
+        if (grandParent == null) {
+            this.root = sibling;
+            sibling.parent = null;
+        } else {
+            if (grandParent.child1 == parent) {
+                grandParent.child1 = sibling;
+            } else {
+                grandParent.child2 = sibling;
+            }
+            sibling.parent = grandParent;
+            refit(grandParent);
+        }
+        leaf.parent = null;
+    }
+
+    /**
+     * Balance and recalculate the boxes from the node up to the root.
+     */
+    private void refit(Node node) {
+        while (node != null) {
+            node = balance(node);
+            fit(node);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Rotate the taller child of a node up in its place if it is more than one level taller than the other child.
+     * The taller child's own taller child stays with it and the shorter one moves under the node.
+     * @return - the node now in the node's place.
+     */
+    private Node balance(Node a) {
+        if (a.isLeaf() || a.height < 2) {
+            return a;
+        }
+        int difference = a.child2.height - a.child1.height;
+        if (difference > 1) {
+            return rotateUp(a, a.child2);
+        }
+        if (difference < -1) {
+            return rotateUp(a, a.child1);
+        }
+        return a;
+    }
+
+    private Node rotateUp(Node a, Node up) {
+        Node tall = up.child1.height > up.child2.height ? up.child1 : up.child2;
+        Node shortChild = tall == up.child1 ? up.child2 : up.child1;
+
+        //The node takes the rotated child's place under its parent, and the rotated child takes the node's.
+        up.parent = a.parent;
+        if (up.parent == null) {
+            this.root = up;
+        } else if (up.parent.child1 == a) {
+            up.parent.child1 = up;
+        } else {
+            up.parent.child2 = up;
+        }
+        if (a.child1 == up) {
+            a.child1 = shortChild;
+        } else {
+            a.child2 = shortChild;
+        }
+        shortChild.parent = a;
+        up.child1 = a;
+        up.child2 = tall;
+        a.parent = up;
+        fit(a);
+        fit(up);
+        return up;
+    }
+
+    /**
+     * Recalculate the box and the height of an inner node from its children.
+     */
+    private static void fit(Node node) {
+        node.minX = Math.min(node.child1.minX, node.child2.minX);
+        node.minY = Math.min(node.child1.minY, node.child2.minY);
+        node.maxX = Math.max(node.child1.maxX, node.child2.maxX);
+        node.maxY = Math.max(node.child1.maxY, node.child2.maxY);
+        node.height = 1 + Math.max(node.child1.height, node.child2.height);
+    }
+
+    private static double descendCost(Node child, Node leaf) {
+        if (child.isLeaf()) {
+            return unionPerimeter(child, leaf);
+        }
+        return unionPerimeter(child, leaf) - child.perimeter();
+    }
+
+    private static double unionPerimeter(Node a, Node b) {
+        double width = Math.max(a.maxX, b.maxX) - Math.min(a.minX, b.minX);
+        double height = Math.max(a.maxY, b.maxY) - Math.min(a.minY, b.minY);
+        return 2 * (width + height);
+    }
+
+    /**
+     * A node of the tree, leaves hold a collidable and inner nodes hold two children.
+     */
+    private static class Node {
+        private double minX;
+        private double minY;
+        private double maxX;
+        private double maxY;
+        //Amount of levels under the node, 0 for a leaf.
+        private int height;
+        private Node parent;
+        private Node child1;
+        private Node child2;
+        private Collidable collidable;
+
+        boolean isLeaf() {
+            return this.child1 == null;
+        }
+
+        double perimeter() {
+            return 2 * ((this.maxX - this.minX) + (this.maxY - this.minY));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package game;
+
+import collision.CollisionInfo;
+import geometry.Ball;
+import geometry.Point;
+import geometry.RayHit;
+import geometry.Rectangle;
+import physics.Velocity;
+import util.SlotMap;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * This class is an input port that plays the paddle by itself, moving it to where the next ball reaches the line
+ * of the paddle's top. The path of each ball is followed analytically, one ray through the game environment for
+ * every straight part of it, bouncing off the walls and blocks on the way, instead of moving the ball tick by tick.
+ * A prediction is kept until its ball changes velocity or a block is cleared, so with hundreds of balls only the
+ * few that just bounced are predicted again each tick. It plays headless games for soak tests and benchmarks.
+ */
+public class Autopilot implements InputPort {
+    //Most bounces followed for one prediction, balls that bounce longer than that aren't waited for.
+    private static final int MAX_BOUNCES = 32;
+    //Ticks followed along a ray that doesn't go down, longer than any straight path on the screen.
+    private static final double MAX_RAY_TICKS = 2000;
+    //Distance a bounced ray starts away from the surface it hit, same as the skin of the ball.
+    private static final double SKIN = 0.01;
+    // Values identical to Constants
+    private static final double SCREEN_WIDTH = 800;
+    private static final double MOVEMENT_SENSITIVITY = 8;
+
+    private Simulation simulation;
+    private final Map<Ball, Prediction> predictions;
+    //Predictions of the balls of a ball system, by the balls' ids.
+    private final Map<Integer, Prediction> systemPredictions;
+    private final CollisionQuery query;
+    private long ticks;
+    private long predictionsMade;
+
+    /**
+     * Default constructor, the autopilot plays once it is attached to a simulation.
+     */
+    public Autopilot() {
+        this.predictions = new IdentityHashMap<>();
+        this.systemPredictions = new HashMap<>();
+        this.query = new CollisionQuery();
+    }
+
+    /**
+     * Attach the autopilot to the simulation whose paddle it plays.
+     * @param simulation - the simulation reading the keys.
+     */
+    @Override
+    public void attach(Simulation simulation) {
+        this.simulation = simulation;
+        this.predictions.clear();
+        this.systemPredictions.clear();
+        this.ticks = 0;
+    }
+
+    /**
+     * Get the amount of ball paths predicted so far, every other tick of every ball used a kept prediction.
+     * @return - number of predictions made.
+     */
+    public long getPredictionsMade() {
+        return this.predictionsMade;
+    }
+
+    /**
+     * Move the paddle toward where the first ball it can reach in time lands, or the first ball if it can't reach any.
+     * @return - bit mask of the pressed keys, made of LEFT and RIGHT.
+     */
+    @Override
+    public int pressedKeys() {
+        long now = this.ticks++;
+        Paddle paddle = this.simulation == null ? null : this.simulation.getPaddle();
+        if (paddle == null) {
+            return 0;
+        }
+        Rectangle shape = paddle.getCollisionRectangle();
+        double paddleCenter = (shape.getMinX() + shape.getMaxX()) / 2;
+        double halfWidth = shape.getWidth() / 2;
+        int blocks = this.simulation.getRemainingBlocks().getValue();
+
+        Prediction first = null;
+        Prediction firstReachable = null;
+        SlotMap<Ball> balls = this.simulation.getBalls();
+        BallSystem system = this.simulation.getBallSystem();
+        int systemSize = system == null ? 0 : system.size();
+        for (int i = 0; i < balls.slotCount() + systemSize; i++) {
+            Prediction p;
+            if (i >= balls.slotCount()) {
+                p = prediction(system, i - balls.slotCount(), paddle, now, blocks);
+            } else if (balls.slot(i) != null) {
+                p = prediction(balls.slot(i), paddle, now, blocks);
+            } else {
+                continue;
+            }
+            if (!p.lands || p.arrival < now) {
+                continue;
+            }
+            if (first == null || p.arrival < first.arrival) {
+                first = p;
+            }
+            double distance = Math.abs(p.x - paddleCenter) - halfWidth;
+            boolean reachable = distance <= MOVEMENT_SENSITIVITY * (p.arrival - now);
+            if (reachable && (firstReachable == null || p.arrival < firstReachable.arrival)) {
+                firstReachable = p;
+            }
+        }
+        pruneLostBalls(this.predictions, balls.size(), now);
+        pruneLostBalls(this.systemPredictions, systemSize, now);
+
+        Prediction target = firstReachable != null ? firstReachable : first;
+        if (target == null) {
+            return 0;
+        }
+        //Stop once the paddle moved close enough, before a move would pass the target.
+        if (target.x < paddleCenter - MOVEMENT_SENSITIVITY / 2 && shape.getMinX() - MOVEMENT_SENSITIVITY > 0) {
+            return LEFT;
+        }
+        //The paddle wraps to the other side when moved past the screen, so it isn't moved that far.
+        if (target.x > paddleCenter + MOVEMENT_SENSITIVITY / 2
+                && shape.getMaxX() + MOVEMENT_SENSITIVITY < SCREEN_WIDTH) {
+            return RIGHT;
+        }
+        return 0;
+    }
+
+    /**
+     * Get the kept prediction of a ball, predicting its path again if it bounced or a block was cleared since.
+     */
+    private Prediction prediction(Ball ball, Paddle paddle, long now, int blocks) {
+        Prediction p = this.predictions.get(ball);
+        if (p == null) {
+            p = new Prediction();
+            this.predictions.put(ball, p);
+        }
+        Velocity v = ball.getVelocity();
+        Point center = ball.getCenter();
+        //A point ball hits the paddle with its center, a swept one with its edge.
+        double radius = ball.isSweptCollision() ? ball.getSize() : 0;
+        return update(p, center.getX(), center.getY(), v.getDx(), v.getDy(), radius, paddle, now, blocks);
+    }
+
+    /**
+     * Same as the prediction of a ball object, for a ball of a ball system, which checks the path of its center.
+     */
+    private Prediction prediction(BallSystem system, int i, Paddle paddle, long now, int blocks) {
+        Prediction p = this.systemPredictions.get(system.getId(i));
+        if (p == null) {
+            p = new Prediction();
+            this.systemPredictions.put(system.getId(i), p);
+        }
+        return update(p, system.getX(i), system.getY(i), system.getDx(i), system.getDy(i), 0, paddle, now, blocks);
+    }
+
+    private Prediction update(Prediction p, double x, double y, double dx, double dy, double radius, Paddle paddle,
+                              long now, int blocks) {
+        p.seen = now;
+        if (p.valid && p.dx == dx && p.dy == dy && p.blocks == blocks) {
+            return p;
+        }
+        p.valid = true;
+        p.dx = dx;
+        p.dy = dy;
+        p.blocks = blocks;
+        predict(x, y, radius, paddle, now, p);
+        this.predictionsMade++;
+        return p;
+    }
+
+    /**
+     * Follow the path of a ball until it reaches the line of the paddle's top, one ray for every straight part.
+     * The paddle itself isn't bounced off, since it will have moved by the time the ball gets there.
+     */
+    private void predict(double startX, double startY, double radius, Paddle paddle, long now, Prediction p) {
+        p.lands = false;
+        GameEnvironment environment = this.simulation.getEnvironment();
+        double lineY = paddle.getCollisionRectangle().getMinY() - radius;
+        double x = startX;
+        double y = startY;
+        double dx = p.dx;
+        double dy = p.dy;
+        double time = 0;
+        for (int bounce = 0; bounce <= MAX_BOUNCES; bounce++) {
+            if (y > lineY || (dx == 0 && dy == 0)) {
+                return;
+            }
+            //A ray going down ends on the line, so it lands at its end unless something is hit before.
+            double rayTicks = dy > 0 ? (lineY - y) / dy : MAX_RAY_TICKS;
+            double endX = x + dx * rayTicks;
+            double endY = y + dy * rayTicks;
+            CollisionInfo hit = environment.findClosestCollision(x, y, endX, endY, radius, this.query);
+            if (hit == null || hit.collisionObject() == paddle) {
+                if (dy > 0) {
+                    p.lands = true;
+                    p.x = endX;
+                    p.arrival = now + time + rayTicks;
+                }
+                return;
+            }
+            if (hit.collisionObject().getCollisionBlock().isBlockRemoved()) {
+                return;
+            }
+            double hitTime = hit.collisionTime() * rayTicks;
+            x += dx * hitTime;
+            y += dy * hitTime;
+            time += hitTime;
+            //Bounce the same way a block does, and start the next ray a little away from the side that was hit.
+            switch (hit.collisionSide()) {
+                case RayHit.LEFT:
+                    dx = -dx;
+                    x -= SKIN;
+                    break;
+                case RayHit.RIGHT:
+                    dx = -dx;
+                    x += SKIN;
+                    break;
+                case RayHit.TOP:
+                    dy = -dy;
+                    y -= SKIN;
+                    break;
+                case RayHit.BOTTOM:
+                    dy = -dy;
+                    y += SKIN;
+                    break;
+                default:
+                    dx = -dx;
+                    dy = -dy;
+                    x += Math.signum(dx) * SKIN;
+                    y += Math.signum(dy) * SKIN;
+            }
+        }
+    }
+
+    /**
+     * Drop the predictions of balls that left the game, once there are many more predictions than balls.
+     */
+    private static void pruneLostBalls(Map<?, Prediction> predictions, int balls, long now) {
+        if (predictions.size() <= balls * 2 + 16) {
+            return;
+        }
+        Iterator<Prediction> it = predictions.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().seen != now) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Where and when a ball reaches the paddle's line, with the velocity and the blocks it was predicted with.
+     */
+    private static final class Prediction {
+        private boolean valid;
+        private double dx;
+        private double dy;
+        private int blocks;
+        private boolean lands;
+        private double x;
+        private double arrival;
+        private long seen;
+    }
+}
@@ -0,0 +1,556 @@
+package game;
+
+import biuoop.DrawSurface;
+import collision.Collidable;
+import collision.CollisionInfo;
+import collision.HitEventQueue;
+import collision.HitListener;
+import collision.HitListenerList;
+import collision.HitNotifier;
+import geometry.Ball;
+import geometry.Point;
+import graphics.Sprite;
+import physics.Velocity;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * This class holds many balls in primitive arrays and moves all of them in one loop.
+ * The balls behave like ball objects that check the path of their center: every step is the same as such a
+ * ball's step, they collide with the game environment and notify the hit listeners when they hit a death block.
+ * Listeners get a ball view of the ball that hit, which is only valid during the notification. Queued hit events
+ * keep the ball's id and find its view again when they are delivered.
+ */
+public class BallSystem implements Sprite, HitNotifier {
+    private static final int DEFAULT_CAPACITY = 16;
+    //Below this amount of balls a parallel step costs more than it saves.
+    private static final int MIN_PARALLEL_BALLS = 1024;
+
+    private GameEnvironment environment;
+    private HitListenerList hitListeners = new HitListenerList();
+    private HitEventQueue hitEvents;
+
+    private int size;
+    private double[] x;
+    private double[] y;
+    private double[] previousX;
+    private double[] previousY;
+    private double[] dx;
+    private double[] dy;
+    private int[] radius;
+    private int[] colorIndex;
+    //Ids given to the balls in the order they were added, so they are always sorted.
+    private int[] ids;
+    private int nextId;
+    private boolean[] removed;
+    private int removedCount;
+    private boolean stepping;
+    private boolean parallel;
+    private CollisionInfo[] pendingHits;
+    private long conflicts;
+
+    private List<Color> palette = new ArrayList<>();
+    private Map<Color, Integer> paletteIndex = new HashMap<>();
+    private BallView view = new BallView();
+    private Velocity velocity = new Velocity();
+    private ThreadLocal<CollisionQuery> queries = ThreadLocal.withInitial(CollisionQuery::new);
+
+    /**
+     * Constructor for an empty ball system.
+     * @param environment - the game environment the balls collide with.
+     */
+    public BallSystem(GameEnvironment environment) {
+        this(environment, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for an empty ball system with room for the given amount of balls.
+     * @param environment - the game environment the balls collide with.
+     * @param capacity - amount of balls to allocate room for.
+     */
+    public BallSystem(GameEnvironment environment, int capacity) {
+        this.environment = environment;
+        capacity = Math.max(capacity, 1);
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.previousX = new double[capacity];
+        this.previousY = new double[capacity];
+        this.dx = new double[capacity];
+        this.dy = new double[capacity];
+        this.radius = new int[capacity];
+        this.colorIndex = new int[capacity];
+        this.ids = new int[capacity];
+        this.removed = new boolean[capacity];
+        this.pendingHits = new CollisionInfo[capacity];
+    }
+
+    /**
+     * Add a new ball to the system.
+     * @param center - the center point of the ball.
+     * @param r - the radius of the ball.
+     * @param color - the color of the ball.
+     * @param v - starting velocity of the ball.
+     */
+    public void addBall(Point center, int r, Color color, Velocity v) {
+        if (this.size == this.x.length) {
+            grow();
+        }
+        this.x[this.size] = center.getX();
+        this.y[this.size] = center.getY();
+        this.previousX[this.size] = center.getX();
+        this.previousY[this.size] = center.getY();
+        this.dx[this.size] = v.getDx();
+        this.dy[this.size] = v.getDy();
+        this.radius[this.size] = r;
+        this.colorIndex[this.size] = colorToIndex(color);
+        this.ids[this.size] = this.nextId++;
+        this.removed[this.size] = false;
+        this.size++;
+    }
+
+    /**
+     * Get the amount of balls in the system.
+     * @return - number of balls.
+     */
+    public int size() {
+        return this.size - this.removedCount;
+    }
+
+    /**
+     * Get the x value of the center of a ball.
+     * @param i - index of the ball, below the amount of balls. Indices of later balls go down when balls are removed.
+     * @return - x value of the center.
+     */
+    public double getX(int i) {
+        return this.x[checkIndex(i)];
+    }
+
+    /**
+     * Get the y value of the center of a ball.
+     * @param i - index of the ball, below the amount of balls.
+     * @return - y value of the center.
+     */
+    public double getY(int i) {
+        return this.y[checkIndex(i)];
+    }
+
+    /**
+     * Get the change in x of a ball's step.
+     * @param i - index of the ball, below the amount of balls.
+     * @return - x value of the velocity.
+     */
+    public double getDx(int i) {
+        return this.dx[checkIndex(i)];
+    }
+
+    /**
+     * Get the change in y of a ball's step.
+     * @param i - index of the ball, below the amount of balls.
+     * @return - y value of the velocity.
+     */
+    public double getDy(int i) {
+        return this.dy[checkIndex(i)];
+    }
+
+    /**
+     * Get the radius of a ball.
+     * @param i - index of the ball, below the amount of balls.
+     * @return - radius of the ball.
+     */
+    public int getRadius(int i) {
+        return this.radius[checkIndex(i)];
+    }
+
+    /**
+     * Get the color of a ball.
+     * @param i - index of the ball, below the amount of balls.
+     * @return - color of the ball.
+     */
+    public Color getColor(int i) {
+        return this.palette.get(this.colorIndex[checkIndex(i)]);
+    }
+
+    /**
+     * Get the id of a ball, which stays the same while the ball is in the system.
+     * @param i - index of the ball, below the amount of balls.
+     * @return - id of the ball, ids of balls added later are bigger.
+     */
+    public int getId(int i) {
+        return this.ids[checkIndex(i)];
+    }
+
+    /**
+     * Check if the balls are moved in parallel.
+     * @return - true if the collision queries of a step run on several threads.
+     */
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
+    /**
+     * Get the amount of ball steps of parallel steps that were moved again one by one, because an earlier
+     * ball's hit changed the environment.
+     * @return - number of steps moved again.
+     */
+    public long getConflicts() {
+        return this.conflicts;
+    }
+
+    /**
+     * Change the way the balls are moved.
+     * In parallel mode all balls look for collisions at the same time against the unchanged environment,
+     * then the hits are applied one ball after the other in the balls' order. The result is the same as
+     * moving the balls one by one.
+     * @param parallel - true to look for collisions on several threads.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Add the ball system to the game as a sprite.
+     * @param g - instance of a game.
+     */
+    public void addToGame(Simulation g) {
+        g.addSprite(this);
+        this.hitEvents = g.getHitEvents();
+    }
+
+    /**
+     * Move every ball one step according to its velocity.
+     */
+    public void moveAllOneStep() {
+        if (this.environment == null) {
+            return;
+        }
+        System.arraycopy(this.x, 0, this.previousX, 0, this.size);
+        System.arraycopy(this.y, 0, this.previousY, 0, this.size);
+        this.stepping = true;
+        if (this.parallel && this.size >= MIN_PARALLEL_BALLS) {
+            moveAllParallel();
+        } else {
+            for (int i = 0; i < this.size; i++) {
+                if (!this.removed[i]) {
+                    moveOneStep(i);
+                }
+            }
+        }
+        this.stepping = false;
+        compact();
+    }
+
+    /**
+     * Look for the collisions of all balls in parallel, then apply the hits in the balls' order.
+     * Nothing changes the environment while the threads query it: balls that don't hit anything only move
+     * themselves, and hits are kept for the second phase. In a game the hit listeners are queued until the tick
+     * ends, so the hits can't change the environment and every kept result holds. A listener that runs right away
+     * may remove or add collidables, and then the balls after the hit are moved again one by one from where they
+     * started, exactly as if all the balls were moved one by one.
+     */
+    private void moveAllParallel() {
+        IntStream.range(0, this.size).parallel().forEach(i -> {
+            if (!this.removed[i]) {
+                this.pendingHits[i] = findCollision(i, this.queries.get());
+            }
+        });
+        long changes = this.environment.getChangeCount();
+        for (int i = 0; i < this.size; i++) {
+            CollisionInfo hitInfo = this.pendingHits[i];
+            this.pendingHits[i] = null;
+            if (this.removed[i]) {
+                continue;
+            }
+            if (this.environment.getChangeCount() != changes) {
+                this.x[i] = this.previousX[i];
+                this.y[i] = this.previousY[i];
+                this.conflicts++;
+                moveOneStep(i);
+            } else if (hitInfo != null) {
+                applyHit(i, hitInfo);
+            }
+        }
+    }
+
+    /**
+     * Same movement as a ball's, using the center of the ball for collisions.
+     * @param i - index of the ball to move.
+     */
+    private void moveOneStep(int i) {
+        CollisionInfo hitInfo = findCollision(i, null);
+        if (hitInfo != null) {
+            applyHit(i, hitInfo);
+        }
+    }
+
+    /**
+     * Find the collision of a ball's next step, or move the ball if there is none.
+     * @param i - index of the ball.
+     * @param query - query memory of the calling thread, null to use the environment's own.
+     * @return - the collision of the step, null if the ball was moved.
+     */
+    private CollisionInfo findCollision(int i, CollisionQuery query) {
+        double startX = this.x[i];
+        double startY = this.y[i];
+        double endX = startX + this.dx[i];
+        double endY = startY + this.dy[i];
+        CollisionInfo hitInfo = query == null
+                ? this.environment.findClosestCollision(startX, startY, endX, endY, 0)
+                : this.environment.getClosestCollision(startX, startY, endX, endY, 0, query);
+        if (hitInfo == null) {
+            this.x[i] = endX;
+            this.y[i] = endY;
+        }
+        return hitInfo;
+    }
+
+    /**
+     * Bounce a ball off the collidable it hit and notify the listeners if it was a death block.
+     * @param i - index of the ball.
+     * @param hitInfo - the collision of the ball's step.
+     */
+    private void applyHit(int i, CollisionInfo hitInfo) {
+        double vx = this.dx[i];
+        double vy = this.dy[i];
+        Collidable collidable = hitInfo.collisionObject();
+        Point collisionPoint = hitInfo.collisionPoint();
+        this.velocity.setDx(vx);
+        this.velocity.setDy(vy);
+        this.view.select(i, this.velocity);
+        //Check if we hit a death block.
+        if (collidable.getCollisionBlock().isBlockRemoved()) {
+            notifyExit(collidable.getCollisionBlock());
+            if (this.removed[i]) {
+                return;
+            }
+        }
+        // Adjust the position to be slightly away from the collision point, before the hit changes the velocity.
+        this.x[i] = collisionPoint.getX() - Math.signum(vx) * this.radius[i];
+        this.y[i] = collisionPoint.getY() - Math.signum(vy) * this.radius[i];
+        Velocity newVelocity = collidable.hit(this.view, collisionPoint, this.velocity);
+        this.dx[i] = newVelocity.getDx();
+        this.dy[i] = newVelocity.getDy();
+    }
+
+    private void notifyExit(Block beingHit) {
+        this.hitListeners.notifyHit(this.hitEvents, beingHit, this.view);
+    }
+
+    /**
+     * Remove a ball from the system.
+     * During a step the ball is only marked, and the arrays are compacted once the step ends.
+     * @param i - index of the ball to remove.
+     */
+    private void remove(int i) {
+        if (this.removed[i]) {
+            return;
+        }
+        this.removed[i] = true;
+        this.removedCount++;
+        if (!this.stepping) {
+            compact();
+        }
+    }
+
+    /**
+     * Move the balls that are left to the start of the arrays, keeping their order.
+     */
+    private void compact() {
+        if (this.removedCount == 0) {
+            return;
+        }
+        int to = 0;
+        for (int from = 0; from < this.size; from++) {
+            if (this.removed[from]) {
+                continue;
+            }
+            if (to != from) {
+                this.x[to] = this.x[from];
+                this.y[to] = this.y[from];
+                this.previousX[to] = this.previousX[from];
+                this.previousY[to] = this.previousY[from];
+                this.dx[to] = this.dx[from];
+                this.dy[to] = this.dy[from];
+                this.radius[to] = this.radius[from];
+                this.colorIndex[to] = this.colorIndex[from];
+                this.ids[to] = this.ids[from];
+                this.removed[to] = false;
+            }
+            to++;
+        }
+        this.size = to;
+        this.removedCount = 0;
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= this.size || this.removed[i]) {
+            throw new IllegalArgumentException("No ball at index " + i);
+        }
+        return i;
+    }
+
+    private void grow() {
+        int capacity = this.x.length * 2;
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.previousX = Arrays.copyOf(this.previousX, capacity);
+        this.previousY = Arrays.copyOf(this.previousY, capacity);
+        this.dx = Arrays.copyOf(this.dx, capacity);
+        this.dy = Arrays.copyOf(this.dy, capacity);
+        this.radius = Arrays.copyOf(this.radius, capacity);
+        this.colorIndex = Arrays.copyOf(this.colorIndex, capacity);
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.removed = Arrays.copyOf(this.removed, capacity);
+        this.pendingHits = Arrays.copyOf(this.pendingHits, capacity);
+    }
+
+    private int colorToIndex(Color color) {
+        Integer index = this.paletteIndex.get(color);
+        if (index == null) {
+            index = this.palette.size();
+            this.palette.add(color);
+            this.paletteIndex.put(color, index);
+        }
+        return index;
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        drawOn(d, 1);
+    }
+
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.removed[i]) {
+                continue;
+            }
+            int ballX = (int) (this.previousX[i] + (this.x[i] - this.previousX[i]) * alpha);
+            int ballY = (int) (this.previousY[i] + (this.y[i] - this.previousY[i]) * alpha);
+            d.setColor(this.palette.get(this.colorIndex[i]));
+            d.fillCircle(ballX, ballY, this.radius[i]);
+            d.setColor(Color.BLACK);
+            d.drawCircle(ballX, ballY, this.radius[i]);
+        }
+    }
+
+    @Override
+    public void timePassed() {
+        moveAllOneStep();
+    }
+
+    @Override
+    public void addHitListener(HitListener hl) {
+        this.hitListeners.add(hl);
+    }
+
+    @Override
+    public void removeHitListener(HitListener hl) {
+        this.hitListeners.remove(hl);
+    }
+
+    @Override
+    public String toString() {
+        return "BallSystem: " + size() + " balls";
+    }
+
+    /**
+     * A ball backed by one index of the arrays, given to collidables and hit listeners.
+     * Its center is read from the arrays when asked for. During a hit its velocity is the one the collidable
+     * changes, like a ball object's, and for a delivered event it is the ball's velocity at delivery.
+     */
+    private class BallView extends Ball {
+        private int index;
+        private final Point center;
+        private final Velocity eventVelocity;
+        private Velocity currentVelocity;
+
+        BallView() {
+            super();
+            this.center = new Point(0, 0);
+            this.eventVelocity = new Velocity();
+            this.currentVelocity = this.eventVelocity;
+        }
+
+        /**
+         * Make the view the ball at an index, with the velocity it is hit with.
+         */
+        void select(int i, Velocity v) {
+            this.index = i;
+            this.currentVelocity = v;
+        }
+
+        @Override
+        public Point getCenter() {
+            this.center.set(x[this.index], y[this.index]);
+            return this.center;
+        }
+
+        @Override
+        public int getX() {
+            return (int) x[this.index];
+        }
+
+        @Override
+        public int getY() {
+            return (int) y[this.index];
+        }
+
+        @Override
+        public int getSize() {
+            return radius[this.index];
+        }
+
+        @Override
+        public Color getColor() {
+            return palette.get(colorIndex[this.index]);
+        }
+
+        @Override
+        public void setColor(Color color) {
+            colorIndex[this.index] = colorToIndex(color);
+        }
+
+        @Override
+        public Velocity getVelocity() {
+            return this.currentVelocity;
+        }
+
+        @Override
+        public GameEnvironment getGameEnvironment() {
+            return environment;
+        }
+
+        @Override
+        public void removeFromGame(Simulation game) {
+            remove(this.index);
+        }
+
+        @Override
+        public int getEventId() {
+            return ids[this.index];
+        }
+
+        @Override
+        public Ball fromEventId(int id) {
+            int found = Arrays.binarySearch(ids, 0, size, id);
+            if (found < 0 || removed[found]) {
+                return null;
+            }
+            this.eventVelocity.set(dx[found], dy[found]);
+            select(found, this.eventVelocity);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "center: (" + x[this.index] + ", " + y[this.index] + "), r: " + radius[this.index]
+                    + ", color: " + getColor() + ", dx: " + dx[this.index] + ", dy: " + dy[this.index];
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package game;
+
+import util.RandomSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * This class plays many seeded games headless on every core, to see how levels and ball speeds play out.
+ * Each game gets its own seed from the batch seed, so a batch and every game in it can be played again.
+ * The result of each game is written as soon as it ends, as a CSV or a JSON line, in the order the games end,
+ * and all the results are summed up in distributions. Only a few games per thread are kept in memory at a time,
+ * so a batch can have millions of games.
+ */
+public class BatchRunner {
+    //Games waiting or playing for each thread, so the threads always have work and results don't pile up.
+    private static final int GAMES_PER_THREAD = 16;
+
+    private long games;
+    private long seed;
+    private int threads;
+    private long maxTicks;
+    private LevelDefinition level;
+    private boolean packedBricks;
+    private boolean treeIndex;
+    private boolean eventDriven;
+    private boolean sweptBalls;
+    private boolean systemBalls;
+    private boolean parallelBalls;
+    private int ballsAmount;
+    private int minBallSpeed;
+    private int maxBallSpeed;
+    private boolean json;
+    private Function<RandomSource, InputPort> inputs;
+
+    /**
+     * Constructor for a batch of 1000 games with a random seed, on every core, with scripted paddles.
+     */
+    public BatchRunner() {
+        this.games = 1000;
+        this.seed = new RandomSource().getSeed();
+        this.threads = Runtime.getRuntime().availableProcessors();
+        //Ten minutes of game at 60 ticks per second.
+        this.maxTicks = 36000;
+        this.minBallSpeed = 4;
+        this.maxBallSpeed = 8;
+        this.ballsAmount = 3;
+        this.inputs = ScriptedInput::new;
+    }
+
+    /**
+     * Set the amount of games to play.
+     * @param games - number of games.
+     */
+    public void setGames(long games) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Amount of games can't be negative");
+        }
+        this.games = games;
+    }
+
+    /**
+     * Set the seed the games' seeds are taken from.
+     * @param seed - seed of the batch.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Set the amount of threads playing games.
+     * @param threads - number of threads.
+     */
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Amount of threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Set the most ticks a game is played, games that didn't end by then are stopped.
+     * @param maxTicks - number of ticks.
+     */
+    public void setMaxTicks(long maxTicks) {
+        if (maxTicks <= 0) {
+            throw new IllegalArgumentException("Max ticks must be positive");
+        }
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Set the level played, null for the default blocks.
+     * @param level - the level.
+     */
+    public void setLevel(LevelDefinition level) {
+        this.level = level;
+    }
+
+    /**
+     * Choose if the games keep their bricks in a brick grid.
+     * @param packed - true to keep the bricks in a brick grid.
+     */
+    public void setPackedBricks(boolean packed) {
+        this.packedBricks = packed;
+    }
+
+    /**
+     * Choose the spatial index of the games' environments, a uniform grid by default.
+     * The bounding volume tree adapts to the collidables, for levels with bricks of very different sizes.
+     * @param tree - true to keep the collidables in a bounding volume tree.
+     */
+    public void setTreeIndex(boolean tree) {
+        this.treeIndex = tree;
+    }
+
+    /**
+     * Choose if the games move their balls from impact to impact instead of a step every tick.
+     * @param eventDriven - true for event driven balls.
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
+    /**
+     * Choose if the balls of the games hit blocks with their whole circle instead of their center.
+     * @param swept - true for swept balls.
+     */
+    public void setSweptCollision(boolean swept) {
+        this.sweptBalls = swept;
+    }
+
+    /**
+     * Choose if the games keep their balls in a ball system instead of ball objects.
+     * @param system - true to keep the balls in a ball system.
+     */
+    public void setBallSystem(boolean system) {
+        this.systemBalls = system;
+    }
+
+    /**
+     * Choose if the balls of a ball system look for their collisions on several threads, for batches of a few
+     * games with many balls.
+     * @param parallel - true to move the balls of the ball system in parallel.
+     */
+    public void setParallelBalls(boolean parallel) {
+        this.parallelBalls = parallel;
+    }
+
+    /**
+     * Set the amount of balls each game starts with, 3 by default.
+     * @param amount - number of balls.
+     */
+    public void setBallCount(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Ball count must be positive");
+        }
+        this.ballsAmount = amount;
+    }
+
+    /**
+     * Set the range of the balls' random speeds.
+     * @param minSpeed - lowest speed, included.
+     * @param maxSpeed - highest speed, included.
+     */
+    public void setBallSpeed(int minSpeed, int maxSpeed) {
+        if (minSpeed <= 0 || maxSpeed < minSpeed) {
+            throw new IllegalArgumentException("Ball speed range must be positive and not empty");
+        }
+        this.minBallSpeed = minSpeed;
+        this.maxBallSpeed = maxSpeed;
+    }
+
+    /**
+     * Choose between JSON lines and CSV with a header for the results.
+     * @param json - true for JSON lines.
+     */
+    public void setJson(boolean json) {
+        this.json = json;
+    }
+
+    /**
+     * Set how the paddle of each game is played.
+     * @param inputs - creates the input of a game from a random source of its own.
+     */
+    public void setInputs(Function<RandomSource, InputPort> inputs) {
+        if (inputs == null) {
+            throw new IllegalArgumentException("Null inputs for batch runner");
+        }
+        this.inputs = inputs;
+    }
+
+    /**
+     * Play one game of the batch on the calling thread.
+     * @param game - index of the game in the batch.
+     * @param gameSeed - seed of the game.
+     * @return - the game's result.
+     */
+    public GameResult play(long game, long gameSeed) {
+        //The input's source is split from its own copy of the seed, so it doesn't change the game's numbers.
+        InputPort input = this.inputs.apply(new RandomSource(gameSeed).split());
+        GameEnvironment environment = this.treeIndex ? new GameEnvironment(new AabbTree()) : new GameEnvironment();
+        Simulation simulation = new Simulation(input, environment, new RandomSource(gameSeed));
+        simulation.getProfiler().setEnabled(false);
+        simulation.setPackedBricks(this.packedBricks);
+        simulation.setEventDriven(this.eventDriven);
+        simulation.setSweptCollision(this.sweptBalls);
+        simulation.setBallSystem(this.systemBalls);
+        simulation.setParallelBalls(this.parallelBalls);
+        simulation.setBallCount(this.ballsAmount);
+        simulation.setBallSpeed(this.minBallSpeed, this.maxBallSpeed);
+        if (this.level == null) {
+            simulation.initialize();
+        } else {
+            simulation.initialize(this.level);
+        }
+        int startingBalls = simulation.getRemainingBalls().getValue();
+        simulation.runHeadless(this.maxTicks);
+        return GameResult.of(game, simulation, startingBalls);
+    }
+
+    /**
+     * Play the batch, writing each result as soon as its game ends.
+     * @param out - where the results are written, flushed but not closed.
+     * @return - summary of all the results.
+     * @throws IOException - if writing fails.
+     * @throws InterruptedException - if the calling thread was interrupted while waiting for games.
+     */
+    public BatchSummary run(Writer out) throws IOException, InterruptedException {
+        BufferedWriter writer = (out instanceof BufferedWriter) ? (BufferedWriter) out : new BufferedWriter(out);
+        if (!this.json) {
+            writer.write(GameResult.CSV_HEADER);
+            writer.newLine();
+        }
+        BatchSummary summary = new BatchSummary();
+        RandomSource seeds = new RandomSource(this.seed);
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        CompletionService<GameResult> results = new ExecutorCompletionService<>(pool);
+        long window = (long) this.threads * GAMES_PER_THREAD;
+        long submitted = 0;
+        try {
+            for (long done = 0; done < this.games; done++) {
+                while (submitted < this.games && submitted - done < window) {
+                    long game = submitted++;
+                    long gameSeed = seeds.nextLong();
+                    results.submit(() -> play(game, gameSeed));
+                }
+                GameResult result;
+                try {
+                    result = results.take().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A game of the batch failed", e.getCause());
+                }
+                summary.add(result);
+                writer.write(this.json ? result.toJson() : result.toCsv());
+                writer.newLine();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        writer.flush();
+        return summary;
+    }
+
+    /**
+     * Play a batch from the command line. Arguments:
+     * --games n, --seed n, --threads n, --max-ticks n, --level file, --packed, --tree, --events,
+     * --swept, --balls n, --ball-system to keep the balls in a ball system,
+     * --parallel to move them on several threads, --speed min max,
+     * --autopilot to play the paddles with the autopilot instead of random keys,
+     * --json, and --out file to write the results to a file instead of the standard output.
+     * The summary is printed to the standard error once the batch ends.
+     * @param args - the arguments.
+     * @throws IOException - if reading the level or writing the results fails.
+     * @throws InterruptedException - if interrupted while playing.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BatchRunner runner = new BatchRunner();
+        String outFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    runner.setGames(Long.parseLong(value(args, ++i)));
+                    break;
+                case "--seed":
+                    runner.setSeed(Long.parseLong(value(args, ++i)));
+                    break;
+                case "--threads":
+                    runner.setThreads(Integer.parseInt(value(args, ++i)));
+                    break;
+                case "--max-ticks":
+                    runner.setMaxTicks(Long.parseLong(value(args, ++i)));
+                    break;
+                case "--level":
+                    runner.setLevel(LevelDefinition.load(Paths.get(value(args, ++i))));
+                    break;
+                case "--packed":
+                    runner.setPackedBricks(true);
+                    break;
+                case "--tree":
+                    runner.setTreeIndex(true);
+                    break;
+                case "--balls":
+                    runner.setBallCount(Integer.parseInt(value(args, ++i)));
+                    break;
+                case "--ball-system":
+                    runner.setBallSystem(true);
+                    break;
+                case "--parallel":
+                    runner.setParallelBalls(true);
+                    break;
+                case "--speed":
+                    int minSpeed = Integer.parseInt(value(args, ++i));
+                    runner.setBallSpeed(minSpeed, Integer.parseInt(value(args, ++i)));
+                    break;
+                case "--events":
+                    runner.setEventDriven(true);
+                    break;
+                case "--swept":
+                    runner.setSweptCollision(true);
+                    break;
+                case "--autopilot":
+                    runner.setInputs(random -> new Autopilot());
+                    break;
+                case "--json":
+                    runner.setJson(true);
+                    break;
+                case "--out":
+                    outFile = value(args, ++i);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        System.err.println("Batch seed " + runner.seed + ", " + runner.games + " games on " + runner.threads
+                + " threads");
+        long start = System.nanoTime();
+        BatchSummary summary;
+        if (outFile == null) {
+            summary = runner.run(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        } else {
+            try (Writer out = Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8)) {
+                summary = runner.run(out);
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1000000L;
+        System.err.println(summary);
+        System.err.println("Played in " + millis + " ms");
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
@@ -0,0 +1,123 @@
+package game;
+
+import util.Histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class aggregates the results of many games into distributions of the ticks to clear, the score,
+ * the game length and the balls lost. The class isn't thread safe, results are added by one thread.
+ */
+public class BatchSummary {
+    private final Histogram ticksToClear;
+    private final Histogram ticks;
+    private final Histogram score;
+    private final Histogram blocksLeft;
+    private long[] ballsLost;
+    private long games;
+    private long cleared;
+
+    /**
+     * Default constructor for an empty summary.
+     */
+    public BatchSummary() {
+        this.ticksToClear = new Histogram();
+        this.ticks = new Histogram();
+        this.score = new Histogram();
+        this.blocksLeft = new Histogram();
+        this.ballsLost = new long[0];
+    }
+
+    /**
+     * Add the result of a game.
+     * @param result - the game's result.
+     */
+    public void add(GameResult result) {
+        this.games++;
+        if (result.isCleared()) {
+            this.cleared++;
+            this.ticksToClear.record(result.getTicksToClear());
+        }
+        this.ticks.record(result.getTicks());
+        this.score.record(result.getScore());
+        this.blocksLeft.record(result.getBlocksLeft());
+        int lost = Math.max(0, result.getBallsLost());
+        if (lost >= this.ballsLost.length) {
+            this.ballsLost = Arrays.copyOf(this.ballsLost, lost + 1);
+        }
+        this.ballsLost[lost]++;
+    }
+
+    /**
+     * Get the amount of games added.
+     * @return - number of games.
+     */
+    public long getGames() {
+        return this.games;
+    }
+
+    /**
+     * Get the amount of games that cleared the level.
+     * @return - number of won games.
+     */
+    public long getCleared() {
+        return this.cleared;
+    }
+
+    /**
+     * Get the distribution of the ticks it took to clear the level, of the won games only.
+     * @return - histogram of ticks.
+     */
+    public Histogram getTicksToClear() {
+        return this.ticksToClear;
+    }
+
+    /**
+     * Get the distribution of the final scores.
+     * @return - histogram of scores.
+     */
+    public Histogram getScore() {
+        return this.score;
+    }
+
+    /**
+     * Get the amount of games that lost the given amount of balls.
+     * @param lost - number of balls lost.
+     * @return - number of games.
+     */
+    public long gamesWithBallsLost(int lost) {
+        return lost >= 0 && lost < this.ballsLost.length ? this.ballsLost[lost] : 0;
+    }
+
+    /**
+     * Describe the distributions, a line each.
+     * @return - lines of the report.
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("games: %d, cleared: %d (%.2f%%)", this.games, this.cleared,
+                this.games == 0 ? 0.0 : 100.0 * this.cleared / this.games));
+        lines.add(line("ticks to clear", this.ticksToClear));
+        lines.add(line("ticks played", this.ticks));
+        lines.add(line("score", this.score));
+        lines.add(line("blocks left", this.blocksLeft));
+        StringBuilder lost = new StringBuilder("balls lost:");
+        for (int i = 0; i < this.ballsLost.length; i++) {
+            lost.append(' ').append(i).append(": ").append(this.ballsLost[i]);
+        }
+        lines.add(lost.toString());
+        return lines;
+    }
+
+    private static String line(String name, Histogram h) {
+        return String.format("%s - mean: %.1f p10: %d p50: %d p90: %d p99: %d max: %d", name, h.getMean(),
+                h.getPercentile(10), h.getPercentile(50), h.getPercentile(90), h.getPercentile(99), h.getMax());
+    }
+
+    @Override
+    public String toString() {
+        return String.join(System.lineSeparator(), report());
+    }
+}
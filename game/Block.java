@@ -3,16 +3,17 @@ package game;
 import biuoop.DrawSurface;
 import geometry.Ball;
 import geometry.Point;
+import geometry.RayHit;
 import geometry.Rectangle;
 import graphics.Sprite;
 import collision.Collidable;
+import collision.HitEventQueue;
 import collision.HitListener;
+import collision.HitListenerList;
 import collision.HitNotifier;
 import physics.Velocity;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
 
 
 /**
@@ -22,7 +23,8 @@ public class Block implements Collidable, Sprite, HitNotifier {
 
     private Rectangle rectangle;
     private Color color;
-    private List<HitListener> hitListeners = new ArrayList<>();
+    private HitListenerList hitListeners = new HitListenerList();
+    private HitEventQueue hitEvents;
     private boolean blockRemoved;
 
     /**
@@ -55,21 +57,48 @@ public class Block implements Collidable, Sprite, HitNotifier {
     }
 
     /**
-     * Add the block to the game a sprite and a collidable object.
+     * Check if a hit queued on the block should still be delivered.
+     * A block object stays hittable, its listeners are cleared when it is removed instead.
+     * @return - true if the block's listeners should get its queued hits.
+     */
+    public boolean isHittable() {
+        return true;
+    }
+
+    /**
+     * Get the id of the block in queued hit events, for blocks that stand for many bricks.
+     * @return - id of the block, 0 for a block object.
+     */
+    public int getEventId() {
+        return 0;
+    }
+
+    /**
+     * Get the block a queued hit event was about.
+     * @param id - id the block had when the event was queued.
+     * @return - the block.
+     */
+    public Block fromEventId(int id) {
+        return this;
+    }
+
+    /**
+     * Add the block to the game as a collidable object, drawn by the game's static layer.
      * @param g - the game reference we add to.
      */
-    public void addToGame(Game g) {
+    public void addToGame(Simulation g) {
         g.addCollidable(this);
-        g.addSprite(this);
+        g.addStaticBlock(this);
+        this.hitEvents = g.getHitEvents();
     }
 
     /**
-     * Add the background as only a sprite to the game.
+     * Add the background to the game's static layer only, it isn't a collidable.
      * @param g - the game reference we add to.
      */
-    public void addBackground(Game g) {
+    public void addBackground(Simulation g) {
 
-        g.addSprite(this);
+        g.addStaticBlock(this);
     }
 
     /**
@@ -86,26 +115,21 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * Function to remove this block from the game.
      * @param game - game reference to remove the block from.
      */
-    public void removeFromGame(Game game) {
+    public void removeFromGame(Simulation game) {
         if (game != null) {
             game.removeCollidable(this);
-            game.removeSprite(this);
-            for (int i = 0; i < this.hitListeners.size(); i++) {
-                removeHitListener(this.hitListeners.get(i));
-            }
+            game.removeStaticBlock(this);
+            this.hitListeners.clear();
         }
     }
 
     /**
      * Function to update all hit listeners upon a hit.
+     * In a game the hit is queued and the listeners get it when the tick ends.
      * @param hitter - the ball that hit the block.
      */
     private void notifyHit(Ball hitter) {
-        List<HitListener> listeners = new ArrayList<HitListener>(this.hitListeners);
-        // Notify all listeners about a hit event:
-        for (HitListener hl : listeners) {
-            hl.hitEvent(this, hitter);
-        }
+        this.hitListeners.notifyHit(this.hitEvents, this, hitter);
     }
 
     /**
@@ -139,13 +163,13 @@ public class Block implements Collidable, Sprite, HitNotifier {
     /**
      * Handles a collision between a ball and this block.
      * Determines which edge of the block was hit using the collision point,
-     * updates the ball's velocity accordingly by reversing its direction,
+     * reflects the ball's velocity in place by reversing its direction,
      * and notifies listeners if the ball color does not match the block color.
      *
      * @param hitter the ball that hit the block
      * @param collisionPoint the point where the collision occurred
-     * @param currentVelocity the ball's velocity before the collision
-     * @return the new velocity of the ball after the collision
+     * @param currentVelocity the ball's velocity before the collision, changed in place
+     * @return the same velocity instance, after the collision
      * @throws IllegalArgumentException if collisionPoint or currentVelocity is null
      */
     @Override
@@ -153,22 +177,20 @@ public class Block implements Collidable, Sprite, HitNotifier {
         if ((collisionPoint == null) || (currentVelocity == null)) {
             throw new IllegalArgumentException("Null exception hit function");
         }
-        double dx = currentVelocity.getDx(), dy = currentVelocity.getDy();
+        double x = collisionPoint.getX(), y = collisionPoint.getY();
         //Check horizontal lines collision.
-        if (this.rectangle.getTopLine().isOnLine(collisionPoint)
-                || this.rectangle.getBottomLine().isOnLine(collisionPoint)) {
-            dy *= -1;
+        if (this.rectangle.isOnSide(RayHit.TOP, x, y) || this.rectangle.isOnSide(RayHit.BOTTOM, x, y)) {
+            currentVelocity.reflectHorizontal();
         }
         //Check vertical lines collision.
-        if (this.rectangle.getLeftLine().isOnLine(collisionPoint)
-                || this.rectangle.getRightLine().isOnLine(collisionPoint)) {
-            dx *= -1;
+        if (this.rectangle.isOnSide(RayHit.LEFT, x, y) || this.rectangle.isOnSide(RayHit.RIGHT, x, y)) {
+            currentVelocity.reflectVertical();
         }
         //Remove the ball if the color of the ball is different from the block.
         if (!ballColorMatch(hitter)) {
             this.notifyHit(hitter);
         }
-        return new Velocity(dx, dy);
+        return currentVelocity;
     }
 
     /**
@@ -213,9 +235,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void addHitListener(HitListener hl) {
-        if (hl != null) {
-            this.hitListeners.add(hl);
-        }
+        this.hitListeners.add(hl);
     }
 
     /**
@@ -226,8 +246,6 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void removeHitListener(HitListener hl) {
-        if (hl != null) {
-            this.hitListeners.remove(hl);
-        }
+        this.hitListeners.remove(hl);
     }
 }
@@ -0,0 +1,545 @@
+package game;
+
+import biuoop.DrawSurface;
+import collision.Collidable;
+import collision.HitEventQueue;
+import collision.HitListener;
+import collision.HitListenerList;
+import collision.HitNotifier;
+import geometry.Ball;
+import geometry.Point;
+import geometry.RayHit;
+import geometry.Rectangle;
+import graphics.Sprite;
+import physics.Velocity;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * This class holds a whole field of grid aligned bricks as one collidable, with a byte per brick.
+ * Each cell of the grid holds the palette index of its brick plus one, 0 for no brick, so a brick costs a byte
+ * instead of a block with its own rectangle, points and listeners.
+ * Rays are cast by walking the cells along them in order, and only the bricks in those cells are tested.
+ * When a brick is hit its listeners get the grid's block standing for that brick, and removing the block empties
+ * its cell. In a game the bricks are drawn by the game's static layer, which draws a brick's cell again once it
+ * is emptied.
+ */
+public class BrickGrid implements Collidable, Sprite, HitNotifier {
+    //Threshold for double calculation, same as the one used by rectangles.
+    private static final double THRESHOLD = 0.0001;
+    private static final int MAX_COLORS = 255;
+
+    private final double originX;
+    private final double originY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int rows;
+    private final int columns;
+    private final byte[] cells;
+    private Color[] palette;
+    private int count;
+    private final Rectangle bounds;
+    //Stands for the whole grid when the environment asks for the block of the collision.
+    private final Block gridBlock;
+    //Stands for the brick of a hit when the listeners are notified.
+    private final GridBrick brick;
+    private HitListenerList hitListeners = new HitListenerList();
+    private HitEventQueue hitEvents;
+
+    /**
+     * Constructor for an empty grid.
+     * @param originX - x value of the left side of column 0.
+     * @param originY - y value of the top of row 0.
+     * @param cellWidth - width of every brick.
+     * @param cellHeight - height of every brick.
+     * @param rows - amount of rows.
+     * @param columns - amount of columns.
+     */
+    public BrickGrid(double originX, double originY, double cellWidth, double cellHeight, int rows, int columns) {
+        if (cellWidth <= 0 || cellHeight <= 0 || rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Brick grid must have positive cell size and dimensions");
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.rows = rows;
+        this.columns = columns;
+        try {
+            this.cells = new byte[Math.multiplyExact(rows, columns)];
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Brick grid is too big", e);
+        }
+        this.palette = new Color[0];
+        this.bounds = new Rectangle(new Point(originX, originY), columns * cellWidth, rows * cellHeight);
+        this.gridBlock = new Block(this.bounds, null);
+        this.brick = new GridBrick(this, 0, 0);
+    }
+
+    /**
+     * Create a grid holding every brick of a level.
+     * @param level - the level.
+     * @return - a new grid, at least one cell big.
+     */
+    public static BrickGrid fromLevel(LevelDefinition level) {
+        BrickGrid grid = new BrickGrid(level.getOriginX(), level.getOriginY(), level.getCellWidth(),
+                level.getCellHeight(), Math.max(1, level.rows()), Math.max(1, level.columns()));
+        for (int i = 0; i < level.brickCount(); i++) {
+            grid.setBrick(level.brickRow(i), level.brickColumn(i), level.brickColor(i));
+        }
+        return grid;
+    }
+
+    /**
+     * Put a brick in a cell, replacing the brick that is there.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     * @param color - color of the brick.
+     */
+    public void setBrick(int row, int col, Color color) {
+        if (!inGrid(row, col) || color == null) {
+            throw new IllegalArgumentException("No cell " + row + ", " + col + " or null color");
+        }
+        int index = row * this.columns + col;
+        if (this.cells[index] == 0) {
+            this.count++;
+        }
+        this.cells[index] = (byte) (paletteIndex(color) + 1);
+    }
+
+    private int paletteIndex(Color color) {
+        for (int i = 0; i < this.palette.length; i++) {
+            if (this.palette[i].equals(color)) {
+                return i;
+            }
+        }
+        if (this.palette.length == MAX_COLORS) {
+            throw new IllegalArgumentException("Brick grid can't have more than " + MAX_COLORS + " colors");
+        }
+        this.palette = Arrays.copyOf(this.palette, this.palette.length + 1);
+        this.palette[this.palette.length - 1] = color;
+        return this.palette.length - 1;
+    }
+
+    /**
+     * Check if a cell has a brick.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     * @return - true if there is a brick in the cell, cells out of the grid have none.
+     */
+    public boolean hasBrick(int row, int col) {
+        return inGrid(row, col) && this.cells[row * this.columns + col] != 0;
+    }
+
+    /**
+     * Get the color of the brick in a cell.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     * @return - color of the brick, null if there is no brick.
+     */
+    public Color brickColor(int row, int col) {
+        return hasBrick(row, col) ? this.palette[(this.cells[row * this.columns + col] & 0xff) - 1] : null;
+    }
+
+    /**
+     * Remove the brick of a cell.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     */
+    public void clearBrick(int row, int col) {
+        if (hasBrick(row, col)) {
+            this.cells[row * this.columns + col] = 0;
+            this.count--;
+        }
+    }
+
+    /**
+     * Get the amount of bricks left.
+     * @return - number of cells with a brick.
+     */
+    public int brickCount() {
+        return this.count;
+    }
+
+    /**
+     * Get the amount of rows.
+     * @return - number of rows.
+     */
+    public int rows() {
+        return this.rows;
+    }
+
+    /**
+     * Get the amount of columns.
+     * @return - number of columns.
+     */
+    public int columns() {
+        return this.columns;
+    }
+
+    /**
+     * Get the rectangle of a cell.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     * @return - a new rectangle at the cell.
+     */
+    public Rectangle cellRectangle(int row, int col) {
+        return new Rectangle(new Point(cellMinX(col), cellMinY(row)), this.cellWidth, this.cellHeight);
+    }
+
+    /**
+     * Get the x value of the left side of column 0.
+     * @return - x value of the grid's left side.
+     */
+    public double getOriginX() {
+        return this.originX;
+    }
+
+    /**
+     * Get the y value of the top of row 0.
+     * @return - y value of the grid's top.
+     */
+    public double getOriginY() {
+        return this.originY;
+    }
+
+    /**
+     * Get the width of every brick.
+     * @return - width of a cell.
+     */
+    public double getCellWidth() {
+        return this.cellWidth;
+    }
+
+    /**
+     * Get the height of every brick.
+     * @return - height of a cell.
+     */
+    public double getCellHeight() {
+        return this.cellHeight;
+    }
+
+    /**
+     * Get the column of the cells at an x value, the nearest column for values out of the grid.
+     * @param x - the x value.
+     * @return - column of the cells.
+     */
+    public int columnOf(double x) {
+        return Math.max(0, Math.min(this.columns - 1, (int) Math.floor((x - this.originX) / this.cellWidth)));
+    }
+
+    /**
+     * Get the row of the cells at a y value, the nearest row for values out of the grid.
+     * @param y - the y value.
+     * @return - row of the cells.
+     */
+    public int rowOf(double y) {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor((y - this.originY) / this.cellHeight)));
+    }
+
+    private boolean inGrid(int row, int col) {
+        return row >= 0 && col >= 0 && row < this.rows && col < this.columns;
+    }
+
+    double cellMinX(int col) {
+        return this.originX + col * this.cellWidth;
+    }
+
+    double cellMinY(int row) {
+        return this.originY + row * this.cellHeight;
+    }
+
+    /**
+     * Add the grid to the game as a collidable, drawn by the game's static layer.
+     * @param g - the game reference we add to.
+     */
+    public void addToGame(Simulation g) {
+        g.addCollidable(this);
+        g.addStaticGrid(this);
+        this.hitEvents = g.getHitEvents();
+    }
+
+    /**
+     * Function to remove the whole grid from the game.
+     * @param g - game reference to remove the grid from.
+     */
+    public void removeFromGame(Simulation g) {
+        if (g != null) {
+            g.removeCollidable(this);
+            g.removeStaticGrid(this);
+            this.hitListeners.clear();
+        }
+    }
+
+    /**
+     * @return the rectangle around the whole grid.
+     */
+    @Override
+    public Rectangle getCollisionRectangle() {
+        return this.bounds;
+    }
+
+    /**
+     * Returns a block standing for the whole grid, it is never a death block.
+     * @return the grid's block.
+     */
+    @Override
+    public Block getCollisionBlock() {
+        return this.gridBlock;
+    }
+
+    /**
+     * Cast a circle on the bricks of the grid.
+     * A point is cast by walking the cells the ray crosses in order and stopping at the first brick it hits.
+     * A circle checks every brick near its path, each one grown by the radius with rounded corners, and takes
+     * the first hit, a side before a corner hit at the same time.
+     * @param startX - x value of the center at the start of the movement.
+     * @param startY - y value of the center at the start of the movement.
+     * @param endX - x value of the center at the end of the movement.
+     * @param endY - y value of the center at the end of the movement.
+     * @param radius - radius of the circle, 0 for a point.
+     * @param hit - result to fill with the time of the hit and the point of the brick that is touched.
+     * @return - true if a brick is hit between the start and the end, otherwise false.
+     */
+    @Override
+    public boolean castRay(double startX, double startY, double endX, double endY, double radius, RayHit hit) {
+        if (this.count == 0 || (startX == endX && startY == endY)) {
+            return false;
+        }
+        if (radius > 0) {
+            return castCircle(startX, startY, endX, endY, radius, hit);
+        }
+        //Clip the ray to the grid, so the walk starts in the cell the ray enters the grid at.
+        //Like rectangles, a ray that misses by less than the threshold still counts.
+        double dx = endX - startX;
+        double dy = endY - startY;
+        double tolerance = THRESHOLD / Math.sqrt(dx * dx + dy * dy);
+        double enter = 0;
+        double exit = 1 + tolerance;
+        if (dx == 0) {
+            if (startX < this.bounds.getMinX() - THRESHOLD || startX > this.bounds.getMaxX() + THRESHOLD) {
+                return false;
+            }
+        } else {
+            double t1 = (this.bounds.getMinX() - THRESHOLD - startX) / dx;
+            double t2 = (this.bounds.getMaxX() + THRESHOLD - startX) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (startY < this.bounds.getMinY() - THRESHOLD || startY > this.bounds.getMaxY() + THRESHOLD) {
+                return false;
+            }
+        } else {
+            double t1 = (this.bounds.getMinY() - THRESHOLD - startY) / dy;
+            double t2 = (this.bounds.getMaxY() + THRESHOLD - startY) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (enter > exit) {
+            return false;
+        }
+
+        int col = columnOf(startX + enter * dx);
+        int row = rowOf(startY + enter * dy);
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        //Time the ray crosses the next vertical and horizontal cell border, and the time between borders.
+        double nextX = dx == 0 ? Double.POSITIVE_INFINITY
+                : (cellMinX(dx > 0 ? col + 1 : col) - startX) / dx;
+        double nextY = dy == 0 ? Double.POSITIVE_INFINITY
+                : (cellMinY(dy > 0 ? row + 1 : row) - startY) / dy;
+        double deltaX = dx == 0 ? Double.POSITIVE_INFINITY : this.cellWidth / Math.abs(dx);
+        double deltaY = dy == 0 ? Double.POSITIVE_INFINITY : this.cellHeight / Math.abs(dy);
+        while (inGrid(row, col)) {
+            if (this.cells[row * this.columns + col] != 0
+                    && Rectangle.castRayOnBox(cellMinX(col), cellMinY(row), cellMinX(col) + this.cellWidth,
+                    cellMinY(row) + this.cellHeight, startX, startY, endX, endY, hit)) {
+                return true;
+            }
+            if (nextX < nextY) {
+                if (nextX > exit) {
+                    return false;
+                }
+                col += stepX;
+                nextX += deltaX;
+            } else {
+                if (nextY > exit) {
+                    return false;
+                }
+                row += stepY;
+                nextY += deltaY;
+            }
+        }
+        return false;
+    }
+
+    private boolean castCircle(double startX, double startY, double endX, double endY, double radius,
+                               RayHit hit) {
+        double minX = Math.min(startX, endX) - radius;
+        double maxX = Math.max(startX, endX) + radius;
+        double minY = Math.min(startY, endY) - radius;
+        double maxY = Math.max(startY, endY) + radius;
+        if (maxX < this.bounds.getMinX() || minX > this.bounds.getMaxX()
+                || maxY < this.bounds.getMinY() || minY > this.bounds.getMaxY()) {
+            return false;
+        }
+        boolean found = false;
+        double bestTime = Double.MAX_VALUE;
+        double bestX = 0;
+        double bestY = 0;
+        int bestSide = RayHit.LEFT;
+        for (int row = rowOf(minY); row <= rowOf(maxY); row++) {
+            for (int col = columnOf(minX); col <= columnOf(maxX); col++) {
+                if (this.cells[row * this.columns + col] == 0) {
+                    continue;
+                }
+                double left = cellMinX(col);
+                double top = cellMinY(row);
+                if (Rectangle.castCircleOnBox(left, top, left + this.cellWidth, top + this.cellHeight, radius,
+                        startX, startY, endX, endY, hit) && (hit.getTime() < bestTime || hit.getTime() == bestTime
+                        && bestSide == RayHit.CORNER && hit.getSide() != RayHit.CORNER)) {
+                    found = true;
+                    bestTime = hit.getTime();
+                    bestX = hit.getX();
+                    bestY = hit.getY();
+                    bestSide = hit.getSide();
+                }
+            }
+        }
+        if (found) {
+            hit.set(bestTime, bestX, bestY, bestSide);
+        }
+        return found;
+    }
+
+    /**
+     * Handles a collision between a ball and a brick of the grid.
+     * The brick is the one the ball moves into at the collision point. The ball is reflected by the sides of
+     * the brick it touches that face an empty cell, and the listeners are notified if the ball color doesn't
+     * match the brick color.
+     * @param hitter the ball that hit the grid
+     * @param collisionPoint the point where the collision occurred
+     * @param currentVelocity the ball's velocity before the collision, changed in place
+     * @return the same velocity instance, after the collision
+     */
+    @Override
+    public Velocity hit(Ball hitter, Point collisionPoint, Velocity currentVelocity) {
+        if ((collisionPoint == null) || (currentVelocity == null)) {
+            throw new IllegalArgumentException("Null exception hit function");
+        }
+        double x = collisionPoint.getX(), y = collisionPoint.getY();
+        int brick = brickAt(x, y, currentVelocity);
+        if (brick < 0) {
+            return currentVelocity;
+        }
+        int row = brick / this.columns;
+        int col = brick % this.columns;
+        double left = cellMinX(col);
+        double top = cellMinY(row);
+        boolean onX = Math.abs(x - left) < THRESHOLD && !hasBrick(row, col - 1)
+                || Math.abs(x - left - this.cellWidth) < THRESHOLD && !hasBrick(row, col + 1);
+        boolean onY = Math.abs(y - top) < THRESHOLD && !hasBrick(row - 1, col)
+                || Math.abs(y - top - this.cellHeight) < THRESHOLD && !hasBrick(row + 1, col);
+        if (!onX && !onY) {
+            //Touching only sides between bricks, use every side the point is on.
+            onX = Math.abs(x - left) < THRESHOLD || Math.abs(x - left - this.cellWidth) < THRESHOLD;
+            onY = Math.abs(y - top) < THRESHOLD || Math.abs(y - top - this.cellHeight) < THRESHOLD;
+        }
+        if (onY) {
+            currentVelocity.reflectHorizontal();
+        }
+        if (onX) {
+            currentVelocity.reflectVertical();
+        }
+        Color color = brickColor(row, col);
+        //Remove the ball if the color of the ball is different from the brick.
+        if (!color.equals(hitter.getColor())) {
+            this.hitListeners.notifyHit(this.hitEvents, this.brick.select(row, col), hitter);
+        }
+        return currentVelocity;
+    }
+
+    /**
+     * Find the brick a ball hit at a point: of the bricks whose cells touch the point, the one that is most
+     * in the direction the ball moves.
+     * @return - index of the brick's cell, -1 if no brick touches the point.
+     */
+    private int brickAt(double x, double y, Velocity v) {
+        int firstCol = columnOf(x - THRESHOLD);
+        int lastCol = columnOf(x + THRESHOLD);
+        int firstRow = rowOf(y - THRESHOLD);
+        int lastRow = rowOf(y + THRESHOLD);
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (this.cells[row * this.columns + col] == 0) {
+                    continue;
+                }
+                double score = (cellMinX(col) + this.cellWidth / 2 - x) * v.getDx()
+                        + (cellMinY(row) + this.cellHeight / 2 - y) * v.getDy();
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = row * this.columns + col;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Draws every brick of the grid the same way a block is drawn.
+     * @param d the drawing surface
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (int row = 0; row < this.rows; row++) {
+            for (int col = 0; col < this.columns; col++) {
+                int value = this.cells[row * this.columns + col] & 0xff;
+                if (value == 0) {
+                    continue;
+                }
+                int x = (int) cellMinX(col);
+                int y = (int) cellMinY(row);
+                d.setColor(this.palette[value - 1]);
+                d.fillRectangle(x, y, (int) this.cellWidth, (int) this.cellHeight);
+                d.setColor(Color.black);
+                d.drawRectangle(x, y, (int) this.cellWidth, (int) this.cellHeight);
+            }
+        }
+    }
+
+    /**
+     * Bricks don't change over time.
+     */
+    @Override
+    public void timePassed() {
+
+    }
+
+    /**
+     * Adds a hit listener, notified when any brick of the grid is hit.
+     * @param hl the hit listener to add
+     */
+    @Override
+    public void addHitListener(HitListener hl) {
+        this.hitListeners.add(hl);
+    }
+
+    /**
+     * Removes a hit listener from the grid.
+     * @param hl the hit listener to remove
+     */
+    @Override
+    public void removeHitListener(HitListener hl) {
+        this.hitListeners.remove(hl);
+    }
+
+    @Override
+    public String toString() {
+        return "BrickGrid [" + this.rows + "x" + this.columns + ", bricks=" + this.count + ", bounds=" + this.bounds
+                + "]";
+    }
+}
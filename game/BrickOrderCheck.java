@@ -0,0 +1,99 @@
+package game;
+
+import util.RandomSource;
+
+/**
+ * This class checks that the order the blocks are added in doesn't change a game.
+ * Each seeded game is played to the end with the autopilot at the paddle, and played again from a snapshot of its
+ * start whose blocks are restored in a shuffled order. The seeds whose two games end differently are printed.
+ * Swept balls are checked by default, since their circles can touch two blocks next to each other.
+ */
+public final class BrickOrderCheck {
+
+    private BrickOrderCheck() {
+    }
+
+    /**
+     * Play the games of a seed twice, the second time with the blocks in a shuffled order.
+     * @param games - amount of games.
+     * @param seed - seed the games' seeds and the shuffles are taken from.
+     * @param swept - true to play with swept balls, false for balls that check their center.
+     * @param maxTicks - most ticks played in a game.
+     * @return - number of games that ended differently.
+     */
+    public static long check(long games, long seed, boolean swept, long maxTicks) {
+        RandomSource seeds = new RandomSource(seed);
+        long different = 0;
+        for (long i = 0; i < games; i++) {
+            long gameSeed = seeds.nextLong();
+            Simulation game = new Simulation(new Autopilot(), new GameEnvironment(), new RandomSource(gameSeed));
+            game.setSweptCollision(swept);
+            game.initialize();
+            WorldSnapshot start = game.snapshot();
+            int[] order = new int[start.blockCount()];
+            for (int j = 0; j < order.length; j++) {
+                int k = seeds.nextInt(j + 1);
+                order[j] = order[k];
+                order[k] = j;
+            }
+            Simulation shuffled = new Simulation(new Autopilot(), new GameEnvironment(),
+                    new RandomSource(gameSeed));
+            shuffled.restore(start.withBlockOrder(order));
+            game.runHeadless(maxTicks);
+            shuffled.runHeadless(maxTicks);
+            if (!result(game).equals(result(shuffled))) {
+                different++;
+                System.out.println("Seed " + gameSeed + ": " + result(game) + " vs " + result(shuffled)
+                        + " shuffled");
+            }
+        }
+        return different;
+    }
+
+    private static String result(Simulation game) {
+        return "ticks " + game.getTicks() + ", score " + game.getScore().getValue() + ", blocks "
+                + game.getRemainingBlocks().getValue() + ", balls " + game.getRemainingBalls().getValue();
+    }
+
+    /**
+     * Run the check from the command line, with --games n, --seed n, --max-ticks n,
+     * and --point to check balls that look for collisions with their center instead of swept balls.
+     * @param args - the arguments.
+     */
+    public static void main(String[] args) {
+        long games = 100;
+        long seed = 1;
+        long maxTicks = 36000;
+        boolean swept = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    games = Long.parseLong(value(args, ++i));
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value(args, ++i));
+                    break;
+                case "--max-ticks":
+                    maxTicks = Long.parseLong(value(args, ++i));
+                    break;
+                case "--point":
+                    swept = false;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        long different = check(games, seed, swept, maxTicks);
+        System.out.println(different + " of " + games + " games changed with the order of the blocks");
+        if (different > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
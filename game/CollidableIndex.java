@@ -0,0 +1,41 @@
+package game;
+
+import collision.Collidable;
+
+/**
+ * This interface describes a spatial index used by the game environment to find the collidables
+ * a trajectory may hit.
+ */
+public interface CollidableIndex {
+
+    /**
+     * Add a collidable to the index.
+     * @param c - collidable to be added.
+     */
+    void insert(Collidable c);
+
+    /**
+     * Remove a collidable from the index.
+     * @param c - collidable to be removed.
+     */
+    void remove(Collidable c);
+
+    /**
+     * Update the index after the rectangle of a stored collidable changed.
+     * @param c - collidable that moved.
+     */
+    void update(Collidable c);
+
+    /**
+     * Collect every collidable that the trajectory, or a circle moving along it, may hit, each one only once.
+     * The candidates may contain collidables that are not hit, but never miss one that is.
+     * Queries don't change the index, so it can be queried from several threads with different query objects.
+     * @param startX - x value of the start of the trajectory.
+     * @param startY - y value of the start of the trajectory.
+     * @param endX - x value of the end of the trajectory.
+     * @param endY - y value of the end of the trajectory.
+     * @param radius - distance from the trajectory that still counts as a hit.
+     * @param query - query whose candidates are filled, a new round is started first.
+     */
+    void query(double startX, double startY, double endX, double endY, double radius, CollisionQuery query);
+}
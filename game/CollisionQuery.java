@@ -0,0 +1,85 @@
+package game;
+
+import collision.Collidable;
+import collision.CollisionInfo;
+import geometry.RayHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class holds the working memory of one collision query.
+ * The game environment and its index don't change while they are queried, so threads that each use their
+ * own query object can look for collisions at the same time.
+ */
+public class CollisionQuery {
+    private final List<Collidable> candidates;
+    private final RayHit rayHit;
+    private final CollisionInfo collisionInfo;
+    private int[] marks;
+    private int round;
+
+    /**
+     * Default constructor for the class.
+     */
+    public CollisionQuery() {
+        this.candidates = new ArrayList<>();
+        this.rayHit = new RayHit();
+        this.collisionInfo = new CollisionInfo();
+        this.marks = new int[64];
+        this.round = 0;
+    }
+
+    /**
+     * Getter for the candidates list the index fills.
+     * @return - list of collidables that may be hit.
+     */
+    public List<Collidable> getCandidates() {
+        return this.candidates;
+    }
+
+    /**
+     * Getter for the ray hit used when testing the candidates.
+     * @return - ray hit of this query.
+     */
+    public RayHit getRayHit() {
+        return this.rayHit;
+    }
+
+    /**
+     * Getter for the collision info filled by the environment's find functions.
+     * @return - collision info of this query, changed by the next query.
+     */
+    public CollisionInfo getCollisionInfo() {
+        return this.collisionInfo;
+    }
+
+    /**
+     * Start a new query, clearing the candidates and the marks of the previous one.
+     */
+    public void newRound() {
+        this.candidates.clear();
+        this.round++;
+        if (this.round == 0) {
+            Arrays.fill(this.marks, 0);
+            this.round = 1;
+        }
+    }
+
+    /**
+     * Mark an id as visited in this round.
+     * @param id - non negative id to mark.
+     * @return - true if the id wasn't marked yet in this round, otherwise false.
+     */
+    public boolean mark(int id) {
+        if (id >= this.marks.length) {
+            this.marks = Arrays.copyOf(this.marks, Math.max(id + 1, this.marks.length * 2));
+        }
+        if (this.marks[id] == this.round) {
+            return false;
+        }
+        this.marks[id] = this.round;
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package game;
+
+import collision.Collidable;
+
+/**
+ * This interface is notified when the collidables of a game environment change,
+ * so whoever keeps collisions found earlier can find them again.
+ */
+public interface EnvironmentListener {
+    /**
+     * Called after a collidable was added to the environment.
+     * @param c - the added collidable.
+     */
+    void collidableAdded(Collidable c);
+
+    /**
+     * Called after a collidable was removed from the environment.
+     * @param c - the removed collidable.
+     */
+    void collidableRemoved(Collidable c);
+
+    /**
+     * Called after a collidable moved or changed its shape.
+     * @param c - the changed collidable.
+     */
+    void collidableMoved(Collidable c);
+}
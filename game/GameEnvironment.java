@@ -2,24 +2,61 @@ package game;
 
 import geometry.Line;
 import geometry.Point;
+import geometry.RayHit;
 import collision.Collidable;
 import collision.CollisionInfo;
 
-import java.util.ArrayList;
+import util.FrameProfiler;
+import util.SlotMap;
+
 import java.util.List;
 
 /**
  * This class  calculate collisions of the collidable objects and hold constant variables related to the game.
  */
 public class GameEnvironment {
+    //Default area of the spatial index, the game's screen with the bottom bound.
+    private static final double DEFAULT_WIDTH = 800;
+    private static final double DEFAULT_HEIGHT = 620;
+    private static final double DEFAULT_CELL_SIZE = 50;
 
-    private List<Collidable> collidables;
+    //Slots keep the order the collidables were added in, used to break ties between hits.
+    private SlotMap<Collidable> collidables;
+    private CollidableIndex index;
+    private CollisionQuery query;
+    private FrameProfiler profiler;
+    private EnvironmentListener listener;
+    //Amount of times collidables were added, removed or changed, so kept query results can be checked.
+    private long changes;
 
     /**
-     * Default constructor for the class, will create an empty array list.
+     * Default constructor for the class, will create an empty environment covering the game's screen.
      */
     public GameEnvironment() {
-        this.collidables = new ArrayList<>();
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructor for an environment with a custom spatial index size.
+     * @param width - width of the area covered by the spatial index.
+     * @param height - height of the area covered by the spatial index.
+     * @param cellSize - size of each cell of the spatial index.
+     */
+    public GameEnvironment(double width, double height, double cellSize) {
+        this(new UniformGrid(width, height, cellSize));
+    }
+
+    /**
+     * Constructor for an environment using the provided spatial index.
+     * @param index - empty spatial index to store the collidables in.
+     */
+    public GameEnvironment(CollidableIndex index) {
+        if (index == null) {
+            throw new IllegalArgumentException("Null index for game environment");
+        }
+        this.collidables = new SlotMap<>();
+        this.index = index;
+        this.query = new CollisionQuery();
     }
 
     /**
@@ -27,8 +64,13 @@ public class GameEnvironment {
      * @param c - new collidable object to be added.
      */
     public void addCollidable(Collidable c) {
-        if (c != null) {
+        if (c != null && !collidables.contains(c)) {
             collidables.add(c);
+            index.insert(c);
+            this.changes++;
+            if (this.listener != null) {
+                this.listener.collidableAdded(c);
+            }
         }
     }
 
@@ -37,8 +79,61 @@ public class GameEnvironment {
      * @param c - collidable object to be removed.
      */
     public void removeCollidable(Collidable c) {
+        if (c != null && collidables.remove(c)) {
+            index.remove(c);
+            collidables.compact();
+            this.changes++;
+            if (this.listener != null) {
+                this.listener.collidableRemoved(c);
+            }
+        }
+    }
+
+    /**
+     * Set a profiler to measure the collision queries made on the game thread.
+     * @param profiler - profiler to record to, null to stop measuring.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Set a listener to notify when collidables are added, removed or moved.
+     * @param listener - the listener, null to stop notifying.
+     */
+    public void setListener(EnvironmentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Get the amount of times collidables were added, removed, moved or changed in shape so far.
+     * A collision found while the amount stays the same is still the collision a new query would find.
+     * @return - number of changes.
+     */
+    public long getChangeCount() {
+        return this.changes;
+    }
+
+    /**
+     * Check if a collidable object is in the game environment.
+     * @param c - collidable object to look for.
+     * @return - true if the object was added and not removed yet, otherwise false.
+     */
+    public boolean containsCollidable(Collidable c) {
+        return collidables.contains(c);
+    }
+
+    /**
+     * Function to update the position of a collidable object after its rectangle or shape was changed.
+     * @param c - collidable object that moved.
+     */
+    public void updateCollidable(Collidable c) {
         if (c != null) {
-            collidables.remove(c);
+            index.update(c);
+            this.changes++;
+            if (this.listener != null) {
+                this.listener.collidableMoved(c);
+            }
         }
     }
 
@@ -48,20 +143,144 @@ public class GameEnvironment {
      * @return - the closest collision point to the start point of the trajectory. If there are no collisions - null.
      */
     public CollisionInfo getClosestCollision(Line trajectory) {
-        CollisionInfo closestCollision = null;
-        double closestDistance = Double.MAX_VALUE;
-
-        for (Collidable c : collidables) {
-            Point intersection = trajectory.closestIntersectionToStartOfLine(c.getCollisionRectangle());
-            if (intersection != null) {
-                double distance = trajectory.start().distance(intersection);
-                if (distance < closestDistance) {
-                    closestDistance = distance;
-                    closestCollision = new CollisionInfo(intersection, c);
+        return getClosestCollision(trajectory.startX(), trajectory.startY(), trajectory.endX(), trajectory.endY());
+    }
+
+    /**
+     * Find the closest collision of a trajectory given by its start and end coordinates.
+     * @param startX - x value of the start of the trajectory.
+     * @param startY - y value of the start of the trajectory.
+     * @param endX - x value of the end of the trajectory.
+     * @param endY - y value of the end of the trajectory.
+     * @return - the closest collision to the start of the trajectory. If there are no collisions - null.
+     */
+    public CollisionInfo getClosestCollision(double startX, double startY, double endX, double endY) {
+        return getClosestCollision(startX, startY, endX, endY, 0);
+    }
+
+    /**
+     * Find the first collision of a circle moving from start to end.
+     * Only collidables returned by the spatial index are checked, each one with its allocation free ray cast,
+     * by default a cast on its rectangle grown by the radius. When two collidables are hit at the same time
+     * the one added first is returned, like the closest intersection of the linear scan over all collidables.
+     * Collidables sharing a side or a corner are hit at exactly the same time, so a ray through a corner of
+     * neighbouring bricks picks the same brick as the scan did. Only rays passing a corner by about the threshold
+     * of the lines can differ, where the scan's result depended on its rounding.
+     * The collision point is the point of the collidable the circle touches.
+     * @param startX - x value of the center at the start of the movement.
+     * @param startY - y value of the center at the start of the movement.
+     * @param endX - x value of the center at the end of the movement.
+     * @param endY - y value of the center at the end of the movement.
+     * @param radius - radius of the circle, 0 for a point.
+     * @return - the first collision of the movement. If there are no collisions - null.
+     */
+    public CollisionInfo getClosestCollision(double startX, double startY, double endX, double endY,
+                                             double radius) {
+        return copy(findClosestCollision(startX, startY, endX, endY, radius));
+    }
+
+    /**
+     * Find the first collision of a circle moving from start to end using the given query's memory.
+     * As long as the environment isn't changed, threads that each use their own query can call it together.
+     * @param startX - x value of the center at the start of the movement.
+     * @param startY - y value of the center at the start of the movement.
+     * @param endX - x value of the center at the end of the movement.
+     * @param endY - y value of the center at the end of the movement.
+     * @param radius - radius of the circle, 0 for a point.
+     * @param q - query object owned by the calling thread.
+     * @return - the first collision of the movement. If there are no collisions - null.
+     */
+    public CollisionInfo getClosestCollision(double startX, double startY, double endX, double endY,
+                                             double radius, CollisionQuery q) {
+        return copy(findClosestCollision(startX, startY, endX, endY, radius, q));
+    }
+
+    /**
+     * Find the first collision of a circle moving from start to end without allocating.
+     * The result is the environment's own collision info, so it is only valid until the next query.
+     * @param startX - x value of the center at the start of the movement.
+     * @param startY - y value of the center at the start of the movement.
+     * @param endX - x value of the center at the end of the movement.
+     * @param endY - y value of the center at the end of the movement.
+     * @param radius - radius of the circle, 0 for a point.
+     * @return - the first collision of the movement. If there are no collisions - null.
+     */
+    public CollisionInfo findClosestCollision(double startX, double startY, double endX, double endY,
+                                              double radius) {
+        if (this.profiler == null) {
+            return findClosestCollision(startX, startY, endX, endY, radius, this.query);
+        }
+        long start = this.profiler.start();
+        CollisionInfo info = findClosestCollision(startX, startY, endX, endY, radius, this.query);
+        this.profiler.end(FrameProfiler.COLLISION, start);
+        return info;
+    }
+
+    /**
+     * Find the first collision of a circle moving from start to end, filling the given query's collision info.
+     * The result is only valid until the next query made with the same query object.
+     * @param startX - x value of the center at the start of the movement.
+     * @param startY - y value of the center at the start of the movement.
+     * @param endX - x value of the center at the end of the movement.
+     * @param endY - y value of the center at the end of the movement.
+     * @param radius - radius of the circle, 0 for a point.
+     * @param q - query object owned by the calling thread.
+     * @return - the collision info of the query, or null if there are no collisions.
+     */
+    public CollisionInfo findClosestCollision(double startX, double startY, double endX, double endY,
+                                              double radius, CollisionQuery q) {
+        Collidable closest = null;
+        double closestTime = Double.MAX_VALUE;
+        int closestOrder = Integer.MAX_VALUE;
+        double hitX = 0;
+        double hitY = 0;
+        int hitSide = -1;
+
+        index.query(startX, startY, endX, endY, radius, q);
+        List<Collidable> candidates = q.getCandidates();
+        RayHit rayHit = q.getRayHit();
+        for (int i = 0; i < candidates.size(); i++) {
+            Collidable c = candidates.get(i);
+            if (c.castRay(startX, startY, endX, endY, radius, rayHit)) {
+                double time = rayHit.getTime();
+                int order = collidables.slotOf(collidables.handleOf(c));
+                //At the same time a side wins over a corner, then the collidable added first.
+                boolean corner = rayHit.getSide() == RayHit.CORNER;
+                boolean closestCorner = hitSide == RayHit.CORNER;
+                if (time < closestTime || (time == closestTime && (closestCorner && !corner
+                        || closestCorner == corner && order < closestOrder))) {
+                    closestTime = time;
+                    closestOrder = order;
+                    closest = c;
+                    hitX = rayHit.getX();
+                    hitY = rayHit.getY();
+                    hitSide = rayHit.getSide();
                 }
             }
         }
+        if (q == this.query && this.profiler != null) {
+            this.profiler.countCollisionTests(candidates.size());
+        }
+        candidates.clear();
+
+        if (closest == null) {
+            return null;
+        }
+        CollisionInfo info = q.getCollisionInfo();
+        info.set(hitX, hitY, closest, closestTime, hitSide);
+        return info;
+    }
 
-        return closestCollision;
+    /**
+     * Copy a reused collision info, so the caller can keep it.
+     */
+    private static CollisionInfo copy(CollisionInfo info) {
+        if (info == null) {
+            return null;
+        }
+        Point point = info.collisionPoint();
+        CollisionInfo copy = new CollisionInfo();
+        copy.set(point.getX(), point.getY(), info.collisionObject(), info.collisionTime(), info.collisionSide());
+        return copy;
     }
 }
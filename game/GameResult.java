@@ -0,0 +1,141 @@
+package game;
+
+/**
+ * This class holds the outcome of one headless game played by the batch runner.
+ */
+public class GameResult {
+    /**
+     * Header of the CSV lines written for results.
+     */
+    public static final String CSV_HEADER = "game,seed,ticks,cleared,ticks_to_clear,balls_lost,blocks_left,score";
+
+    private final long game;
+    private final long seed;
+    private final long ticks;
+    private final boolean cleared;
+    private final int ballsLost;
+    private final int blocksLeft;
+    private final int score;
+
+    /**
+     * Constructor for a game's result.
+     * @param game - index of the game in the batch.
+     * @param seed - seed of the game's random source, replaying it with the same input gives the same result.
+     * @param ticks - ticks played.
+     * @param cleared - true if every block was cleared.
+     * @param ballsLost - balls that fell off the screen.
+     * @param blocksLeft - blocks not cleared.
+     * @param score - final score, with the level cleared points.
+     */
+    public GameResult(long game, long seed, long ticks, boolean cleared, int ballsLost, int blocksLeft, int score) {
+        this.game = game;
+        this.seed = seed;
+        this.ticks = ticks;
+        this.cleared = cleared;
+        this.ballsLost = ballsLost;
+        this.blocksLeft = blocksLeft;
+        this.score = score;
+    }
+
+    /**
+     * Create the result of a simulation that ended or ran out of ticks.
+     * @param game - index of the game in the batch.
+     * @param simulation - the played simulation.
+     * @param startingBalls - balls the simulation started with.
+     * @return - the result.
+     */
+    public static GameResult of(long game, Simulation simulation, int startingBalls) {
+        return new GameResult(game, simulation.getRandom().getSeed(), simulation.getTicks(),
+                simulation.isLevelCleared(), startingBalls - simulation.getRemainingBalls().getValue(),
+                simulation.getRemainingBlocks().getValue(), simulation.getScore().getValue());
+    }
+
+    /**
+     * Getter for the index of the game.
+     * @return - index of the game in the batch.
+     */
+    public long getGame() {
+        return this.game;
+    }
+
+    /**
+     * Getter for the seed of the game.
+     * @return - seed of the game's random source.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Getter for the ticks played.
+     * @return - number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Check if the game was won.
+     * @return - true if every block was cleared.
+     */
+    public boolean isCleared() {
+        return this.cleared;
+    }
+
+    /**
+     * Getter for the ticks it took to clear the level.
+     * @return - ticks played, -1 if the level wasn't cleared.
+     */
+    public long getTicksToClear() {
+        return this.cleared ? this.ticks : -1;
+    }
+
+    /**
+     * Getter for the balls lost.
+     * @return - number of balls that fell off the screen.
+     */
+    public int getBallsLost() {
+        return this.ballsLost;
+    }
+
+    /**
+     * Getter for the blocks left.
+     * @return - number of blocks not cleared.
+     */
+    public int getBlocksLeft() {
+        return this.blocksLeft;
+    }
+
+    /**
+     * Getter for the final score.
+     * @return - the score.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Format the result as a CSV line matching the CSV header.
+     * @return - the line, without a line break.
+     */
+    public String toCsv() {
+        return this.game + "," + this.seed + "," + this.ticks + "," + this.cleared + "," + getTicksToClear() + ","
+                + this.ballsLost + "," + this.blocksLeft + "," + this.score;
+    }
+
+    /**
+     * Format the result as a JSON object on one line.
+     * @return - the object, without a line break.
+     */
+    public String toJson() {
+        return "{\"game\":" + this.game + ",\"seed\":" + this.seed + ",\"ticks\":" + this.ticks
+                + ",\"cleared\":" + this.cleared + ",\"ticks_to_clear\":" + getTicksToClear()
+                + ",\"balls_lost\":" + this.ballsLost + ",\"blocks_left\":" + this.blocksLeft
+                + ",\"score\":" + this.score + "}";
+    }
+
+    @Override
+    public String toString() {
+        return toCsv();
+    }
+}
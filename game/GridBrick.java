@@ -0,0 +1,118 @@
+package game;
+
+import geometry.Rectangle;
+
+import java.awt.Color;
+
+/**
+ * This class is the block a brick grid gives its listeners when one of its bricks is hit.
+ * A grid has one such block, which stands for the brick of the hit only during the notification. Queued hit
+ * events keep the brick's cell as the block's event id and find the brick again when they are delivered.
+ * Removing the block from the game empties the brick's cell.
+ */
+public class GridBrick extends Block {
+    private BrickGrid grid;
+    private Rectangle rectangle;
+    private Color color;
+    private int row;
+    private int col;
+
+    /**
+     * Constructor for the block of a brick.
+     * @param grid - the grid the brick is in.
+     * @param row - row of the brick.
+     * @param col - column of the brick.
+     */
+    public GridBrick(BrickGrid grid, int row, int col) {
+        this(grid, grid.cellRectangle(row, col));
+        select(row, col);
+    }
+
+    private GridBrick(BrickGrid grid, Rectangle rectangle) {
+        super(rectangle, null);
+        this.grid = grid;
+        this.rectangle = rectangle;
+    }
+
+    /**
+     * Make the block stand for the brick of another cell, moving its rectangle there.
+     * @param brickRow - row of the brick.
+     * @param brickCol - column of the brick.
+     * @return - the block.
+     */
+    GridBrick select(int brickRow, int brickCol) {
+        this.row = brickRow;
+        this.col = brickCol;
+        this.rectangle.setUpperLeft(this.grid.cellMinX(brickCol), this.grid.cellMinY(brickRow));
+        this.color = this.grid.brickColor(brickRow, brickCol);
+        return this;
+    }
+
+    /**
+     * Getter for the row of the brick.
+     * @return - row of the brick in its grid.
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Getter for the column of the brick.
+     * @return - column of the brick in its grid.
+     */
+    public int getColumn() {
+        return this.col;
+    }
+
+    /**
+     * Getter for the color of the brick, the color it had when the block was made to stand for it.
+     * @return - color of the brick.
+     */
+    @Override
+    public Color getColor() {
+        return this.color;
+    }
+
+    /**
+     * Get the id of the brick in queued hit events, the index of its cell.
+     * @return - id of the brick.
+     */
+    @Override
+    public int getEventId() {
+        return this.row * this.grid.columns() + this.col;
+    }
+
+    /**
+     * Make the block stand for the brick a queued hit event was about.
+     * @param id - id the brick had when the event was queued.
+     * @return - the block.
+     */
+    @Override
+    public Block fromEventId(int id) {
+        return select(id / this.grid.columns(), id % this.grid.columns());
+    }
+
+    /**
+     * Check if the brick is still in its grid, a hit queued on a brick that was removed is dropped.
+     * @return - true while the cell of the brick isn't emptied.
+     */
+    @Override
+    public boolean isHittable() {
+        return this.grid.hasBrick(this.row, this.col);
+    }
+
+    /**
+     * Remove the brick by emptying its cell in the grid, which changes the shape of the grid.
+     * @param game - game reference the grid is in.
+     */
+    @Override
+    public void removeFromGame(Simulation game) {
+        if (this.grid.hasBrick(this.row, this.col)) {
+            this.grid.clearBrick(this.row, this.col);
+            if (game != null) {
+                game.getEnvironment().updateCollidable(this.grid);
+                game.redrawStaticArea(this.rectangle);
+            }
+        }
+    }
+}
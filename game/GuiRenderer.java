@@ -0,0 +1,29 @@
+package game;
+
+import biuoop.DrawSurface;
+import biuoop.GUI;
+
+/**
+ * This class draws the frames of the game on a GUI window.
+ */
+public class GuiRenderer implements RenderPort {
+    private GUI gui;
+
+    /**
+     * Constructor for the class.
+     * @param gui - window to draw on.
+     */
+    public GuiRenderer(GUI gui) {
+        this.gui = gui;
+    }
+
+    @Override
+    public DrawSurface beginFrame() {
+        return this.gui.getDrawSurface();
+    }
+
+    @Override
+    public void endFrame(DrawSurface d) {
+        this.gui.show(d);
+    }
+}
@@ -0,0 +1,247 @@
+package game;
+
+import collision.Collidable;
+import collision.CollisionInfo;
+import geometry.Ball;
+import geometry.Point;
+import geometry.RayHit;
+import geometry.Rectangle;
+import physics.Velocity;
+import util.BoxGrid;
+import util.SlotMap;
+
+import java.util.Arrays;
+
+/**
+ * This class moves event driven balls, looking for collisions only in the ticks in which a ball can collide.
+ * The time of each ball's next impact is found once, with one long ray through the game environment along the
+ * ball's path. In the tick of the impact the ball takes its own step, with the same collision query, the same
+ * placing at the collision and the same boundary checks as in tick mode. In every other tick it takes a free
+ * step, which is exactly the ball's own step when nothing is hit. So the game is the same as in tick mode,
+ * while the collision queries grow with the amount of impacts instead of the amount of ticks.
+ * An impact is found again after every step with collisions, and after the GUI boundaries move the ball.
+ * Collidables that are added or moved are checked against the paths of the balls that go near them, found in a
+ * grid of path boxes. Removed collidables need nothing: a ball heading to one just takes a step that hits nothing.
+ */
+public class ImpactScheduler implements EnvironmentListener {
+    private static final int INITIAL_CAPACITY = 16;
+    //Length of the ray searching for the next impact, longer than any straight path on the screen.
+    private static final double HORIZON = 1200;
+    //Part of a tick an impact may be late by, for the rounding of a long ray against the ray of one step.
+    private static final double SLACK = 0.01;
+    //Margin around the path boxes, bigger than the threshold used by rectangles.
+    private static final double MARGIN = 0.001;
+    //Area of the grid of path boxes, the game's screen with the bottom bound, and the size of its cells.
+    private static final double WIDTH = 800;
+    private static final double HEIGHT = 620;
+    private static final double CELL_SIZE = 100;
+
+    private final GameEnvironment environment;
+    //The balls in the order they were added, the same order the sprites step them in tick mode.
+    private final SlotMap<Ball> balls;
+    private final BoxGrid paths;
+    private final RayHit rayHit;
+    private long now;
+
+    //State of each ball by its handle: the time of its next impact, and the velocity and radius it was found with.
+    private double[] impactTimes;
+    private double[] scheduledDx;
+    private double[] scheduledDy;
+    private double[] scheduledRadii;
+
+    private long collisionSteps;
+    private long casts;
+
+    /**
+     * Constructor for the scheduler of the balls of an environment, listening to the environment's changes.
+     * @param environment - the environment the balls collide with.
+     */
+    public ImpactScheduler(GameEnvironment environment) {
+        if (environment == null) {
+            throw new IllegalArgumentException("Null environment for impact scheduler");
+        }
+        this.environment = environment;
+        this.balls = new SlotMap<>();
+        this.paths = new BoxGrid(WIDTH, HEIGHT, CELL_SIZE);
+        this.rayHit = new RayHit();
+        this.impactTimes = new double[INITIAL_CAPACITY];
+        this.scheduledDx = new double[INITIAL_CAPACITY];
+        this.scheduledDy = new double[INITIAL_CAPACITY];
+        this.scheduledRadii = new double[INITIAL_CAPACITY];
+        environment.setListener(this);
+    }
+
+    /**
+     * Add a ball, which becomes event driven, and find its first impact.
+     * @param ball - the ball.
+     */
+    public void add(Ball ball) {
+        if (ball == null) {
+            throw new IllegalArgumentException("Null ball for impact scheduler");
+        }
+        if (this.balls.contains(ball)) {
+            return;
+        }
+        int handle = this.balls.add(ball);
+        if (handle >= this.impactTimes.length) {
+            int capacity = Math.max(handle + 1, this.impactTimes.length * 2);
+            this.impactTimes = Arrays.copyOf(this.impactTimes, capacity);
+            this.scheduledDx = Arrays.copyOf(this.scheduledDx, capacity);
+            this.scheduledDy = Arrays.copyOf(this.scheduledDy, capacity);
+            this.scheduledRadii = Arrays.copyOf(this.scheduledRadii, capacity);
+        }
+        ball.setEventDriven(true);
+        schedule(handle, ball, this.now);
+    }
+
+    /**
+     * Remove a ball, which moves by its own steps again.
+     * @param ball - the ball.
+     * @return - true if the ball was scheduled, otherwise false.
+     */
+    public boolean remove(Ball ball) {
+        int handle = this.balls.handleOf(ball);
+        if (handle < 0) {
+            return false;
+        }
+        this.balls.removeHandle(handle);
+        this.paths.remove(handle);
+        ball.setEventDriven(false);
+        return true;
+    }
+
+    /**
+     * Get the amount of balls scheduled.
+     * @return - number of balls.
+     */
+    public int size() {
+        return this.balls.size();
+    }
+
+    /**
+     * Get the amount of ball steps taken with collisions so far, every other step was a free one.
+     * @return - number of steps with collisions.
+     */
+    public long getCollisionSteps() {
+        return this.collisionSteps;
+    }
+
+    /**
+     * Get the amount of rays cast through the whole environment so far, to find the next impact of a ball.
+     * @return - number of rays.
+     */
+    public long getCasts() {
+        return this.casts;
+    }
+
+    /**
+     * Move every ball by one tick, in the order they were added. Balls whose impact is in this tick take their
+     * own step with collisions, and the others a free step.
+     */
+    public void advance() {
+        long end = this.now + 1;
+        this.balls.compact();
+        for (int i = 0; i < this.balls.slotCount(); i++) {
+            Ball ball = this.balls.slot(i);
+            if (ball == null) {
+                continue;
+            }
+            int handle = this.balls.handleAt(i);
+            Velocity v = ball.getVelocity();
+            //A velocity or a swept mode changed by anyone but the ball's steps makes the impact unknown, so it is
+            //stepped as well.
+            if (this.impactTimes[handle] < end + SLACK || v.getDx() != this.scheduledDx[handle]
+                    || v.getDy() != this.scheduledDy[handle] || collisionRadius(ball) != this.scheduledRadii[handle]) {
+                this.collisionSteps++;
+                ball.moveWithCollisions();
+                schedule(handle, ball, end);
+            } else if (ball.moveFreely()) {
+                schedule(handle, ball, end);
+            }
+        }
+        this.now = end;
+    }
+
+    @Override
+    public void collidableAdded(Collidable c) {
+        checkInTheWay(c);
+    }
+
+    @Override
+    public void collidableRemoved(Collidable c) {
+        //Removing a collidable can't put something in the way, a ball heading to it takes a step hitting nothing.
+    }
+
+    @Override
+    public void collidableMoved(Collidable c) {
+        //A ball whose impact moved away takes a step hitting nothing, only a collidable moved in the way matters.
+        checkInTheWay(c);
+    }
+
+    /**
+     * Find the next impact of a ball from where it is at the given time, and put its path until then in the grid
+     * of paths.
+     */
+    private void schedule(int handle, Ball ball, long time) {
+        Velocity v = ball.getVelocity();
+        double dx = v.getDx();
+        double dy = v.getDy();
+        this.scheduledDx[handle] = dx;
+        this.scheduledDy[handle] = dy;
+        Point center = ball.getCenter();
+        double x = center.getX();
+        double y = center.getY();
+        double radius = collisionRadius(ball);
+        this.scheduledRadii[handle] = radius;
+        double speed = v.getSpeed();
+        double ticks = 0;
+        if (speed == 0) {
+            this.impactTimes[handle] = Double.POSITIVE_INFINITY;
+        } else {
+            //The same query the ball's own step makes, only longer.
+            double rayTicks = HORIZON / speed;
+            this.casts++;
+            CollisionInfo hit = this.environment.findClosestCollision(x, y, x + dx * rayTicks, y + dy * rayTicks,
+                    radius);
+            ticks = hit == null ? rayTicks : hit.collisionTime() * rayTicks;
+            this.impactTimes[handle] = time + ticks;
+        }
+        double endX = x + dx * ticks;
+        double endY = y + dy * ticks;
+        double grow = radius + MARGIN;
+        this.paths.put(handle, Math.min(x, endX) - grow, Math.min(y, endY) - grow,
+                Math.max(x, endX) + grow, Math.max(y, endY) + grow);
+    }
+
+    /**
+     * Check if a collidable that was added or moved is hit by a ball whose path goes near it before its impact.
+     * The impact is only moved earlier, so a ball already due keeps its step with collisions.
+     */
+    private void checkInTheWay(Collidable c) {
+        Rectangle rect = c.getCollisionRectangle();
+        int found = this.paths.query(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY());
+        for (int i = 0; i < found; i++) {
+            int handle = this.paths.result(i);
+            Ball ball = this.balls.get(handle);
+            double ticks = this.impactTimes[handle] - this.now;
+            if (ball == null || ticks <= 0) {
+                continue;
+            }
+            Point center = ball.getCenter();
+            double x = center.getX();
+            double y = center.getY();
+            if (c.castRay(x, y, x + this.scheduledDx[handle] * ticks, y + this.scheduledDy[handle] * ticks,
+                    collisionRadius(ball), this.rayHit)) {
+                this.impactTimes[handle] = Math.min(this.impactTimes[handle],
+                        this.now + this.rayHit.getTime() * ticks);
+            }
+        }
+    }
+
+    /**
+     * Get the radius the ball's own step casts with, 0 for balls that only check their center.
+     */
+    private static double collisionRadius(Ball ball) {
+        return ball.isSweptCollision() ? ball.getSize() : 0;
+    }
+}
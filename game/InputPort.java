@@ -0,0 +1,28 @@
+package game;
+
+/**
+ * This interface describes where the paddle reads the pressed keys from.
+ */
+public interface InputPort {
+    /**
+     * Bit of the key that moves the paddle left.
+     */
+    int LEFT = 1;
+    /**
+     * Bit of the key that moves the paddle right.
+     */
+    int RIGHT = 2;
+
+    /**
+     * Read the keys pressed for the current tick, called once per tick.
+     * @return - bit mask of the pressed keys, made of LEFT and RIGHT.
+     */
+    int pressedKeys();
+
+    /**
+     * Called once by the simulation the port is given to, so ports that play by themselves can look at the game.
+     * @param simulation - the simulation reading the keys.
+     */
+    default void attach(Simulation simulation) {
+    }
+}
@@ -0,0 +1,121 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * This class records the keys another input port reads, so the game can be replayed exactly.
+ * Together with the seed of the game's random source the keys of every tick decide the whole game.
+ * Each tick takes 2 bits, 4 ticks are packed in a byte, so an hour at 60 ticks per second takes about 54KB.
+ */
+public class InputRecorder implements InputPort {
+    /**
+     * First bytes of every recording file, "ARKR".
+     */
+    static final int MAGIC = 0x41524B52;
+    /**
+     * Version of the recording file format.
+     */
+    static final short VERSION = 1;
+    /**
+     * Amount of ticks packed in each byte.
+     */
+    static final int TICKS_PER_BYTE = 4;
+    /**
+     * Mask of the bits recorded for each tick.
+     */
+    static final int TICK_MASK = LEFT | RIGHT;
+
+    private InputPort source;
+    private long seed;
+    private byte[] packed;
+    private long ticks;
+
+    /**
+     * Constructor for the recorder.
+     * @param source - input port whose keys are recorded.
+     * @param seed - seed of the random source of the recorded game.
+     */
+    public InputRecorder(InputPort source, long seed) {
+        if (source == null) {
+            throw new IllegalArgumentException("Null source for input recorder");
+        }
+        this.source = source;
+        this.seed = seed;
+        this.packed = new byte[1024];
+        this.ticks = 0;
+    }
+
+    /**
+     * Read the keys of the source and record them as the keys of the next tick.
+     * @return - bit mask of the pressed keys, made of LEFT and RIGHT.
+     */
+    @Override
+    public int pressedKeys() {
+        int keys = this.source.pressedKeys() & TICK_MASK;
+        int index = (int) (this.ticks / TICKS_PER_BYTE);
+        if (index == this.packed.length) {
+            this.packed = Arrays.copyOf(this.packed, this.packed.length * 2);
+        }
+        int shift = (int) (this.ticks % TICKS_PER_BYTE) * 2;
+        this.packed[index] |= (byte) (keys << shift);
+        this.ticks++;
+        return keys;
+    }
+
+    /**
+     * Attach the source to the simulation, the recorder itself doesn't look at the game.
+     * @param simulation - the simulation reading the keys.
+     */
+    @Override
+    public void attach(Simulation simulation) {
+        this.source.attach(simulation);
+    }
+
+    /**
+     * Get the seed of the recorded game.
+     * @return - the seed.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Get the amount of ticks recorded.
+     * @return - number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Write the recording: the magic, the version, the seed, the amount of ticks and the packed keys.
+     * @param out - stream to write to, not closed.
+     * @throws IOException - if writing fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeLong(this.seed);
+        data.writeLong(this.ticks);
+        data.write(this.packed, 0, (int) ((this.ticks + TICKS_PER_BYTE - 1) / TICKS_PER_BYTE));
+        data.flush();
+    }
+
+    /**
+     * Save the recording to a file, replacing it if it exists.
+     * @param file - path of the file.
+     * @throws IOException - if writing fails.
+     */
+    public void save(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package game;
+
+import util.RandomSource;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class plays back the keys saved by an input recorder, one tick per read.
+ * Replaying runs headless without waiting between ticks, so a long session replays in seconds and ends with
+ * exactly the same score and counters as the recorded one.
+ */
+public class InputReplayer implements InputPort {
+    private long seed;
+    private byte[] packed;
+    private long ticks;
+    private long position;
+
+    /**
+     * Constructor for a replayer of packed keys.
+     * @param seed - seed of the random source of the recorded game.
+     * @param packed - keys of the ticks, packed the way the input recorder packs them.
+     * @param ticks - amount of recorded ticks.
+     */
+    public InputReplayer(long seed, byte[] packed, long ticks) {
+        if (packed == null || ticks < 0 || (ticks + InputRecorder.TICKS_PER_BYTE - 1)
+                / InputRecorder.TICKS_PER_BYTE > packed.length) {
+            throw new IllegalArgumentException("Packed keys don't match the amount of ticks");
+        }
+        this.seed = seed;
+        this.packed = packed;
+        this.ticks = ticks;
+        this.position = 0;
+    }
+
+    /**
+     * Read a recording written by an input recorder.
+     * @param in - stream to read from, not closed.
+     * @return - a replayer of the recording.
+     * @throws IOException - if reading fails or the stream isn't a recording.
+     */
+    public static InputReplayer readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input recording");
+        }
+        short version = data.readShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        long seed = data.readLong();
+        long ticks = data.readLong();
+        long length = (ticks + InputRecorder.TICKS_PER_BYTE - 1) / InputRecorder.TICKS_PER_BYTE;
+        if (ticks < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Bad amount of ticks " + ticks);
+        }
+        byte[] packed = new byte[(int) length];
+        data.readFully(packed);
+        return new InputReplayer(seed, packed, ticks);
+    }
+
+    /**
+     * Load a recording from a file.
+     * @param file - path of the file.
+     * @return - a replayer of the recording.
+     * @throws IOException - if reading fails or the file isn't a recording.
+     */
+    public static InputReplayer load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return readFrom(in);
+        }
+    }
+
+    /**
+     * Read the keys of the next recorded tick, no keys once the recording ended.
+     * @return - bit mask of the pressed keys, made of LEFT and RIGHT.
+     */
+    @Override
+    public int pressedKeys() {
+        if (this.position >= this.ticks) {
+            return 0;
+        }
+        int shift = (int) (this.position % InputRecorder.TICKS_PER_BYTE) * 2;
+        int keys = (this.packed[(int) (this.position / InputRecorder.TICKS_PER_BYTE)] >> shift)
+                & InputRecorder.TICK_MASK;
+        this.position++;
+        return keys;
+    }
+
+    /**
+     * Get the seed of the recorded game.
+     * @return - the seed.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Get the amount of ticks recorded.
+     * @return - number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Check if every recorded tick was read.
+     * @return - true once the recording ended.
+     */
+    public boolean isFinished() {
+        return this.position >= this.ticks;
+    }
+
+    /**
+     * Play the recorded game from its start headless, as fast as possible.
+     * @return - the simulation after the last recorded tick.
+     */
+    public Simulation replay() {
+        return replay(null);
+    }
+
+    /**
+     * Play the recorded game of a level from its start headless, as fast as possible.
+     * @param level - the level the game was recorded on, null for the default blocks.
+     * @return - the simulation after the last recorded tick.
+     */
+    public Simulation replay(LevelDefinition level) {
+        this.position = 0;
+        Simulation simulation = new Simulation(this, new GameEnvironment(), new RandomSource(this.seed));
+        if (level == null) {
+            simulation.initialize();
+        } else {
+            simulation.initialize(level);
+        }
+        simulation.runHeadless(this.ticks);
+        return simulation;
+    }
+}
@@ -0,0 +1,34 @@
+package game;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * This class reads the paddle keys from the GUI's keyboard sensor.
+ */
+public class KeyboardInput implements InputPort {
+    private KeyboardSensor keyboard;
+
+    /**
+     * Constructor for the class.
+     * @param keyboard - keyboard sensor of the GUI.
+     */
+    public KeyboardInput(KeyboardSensor keyboard) {
+        this.keyboard = keyboard;
+    }
+
+    @Override
+    public int pressedKeys() {
+        int keys = 0;
+        if (this.keyboard.isPressed(KeyboardSensor.LEFT_KEY)
+                || this.keyboard.isPressed("a")
+                || this.keyboard.isPressed("A")) {
+            keys |= LEFT;
+        }
+        if (this.keyboard.isPressed(KeyboardSensor.RIGHT_KEY)
+                || this.keyboard.isPressed("d")
+                || this.keyboard.isPressed("D")) {
+            keys |= RIGHT;
+        }
+        return keys;
+    }
+}
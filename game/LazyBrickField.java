@@ -0,0 +1,186 @@
+package game;
+
+import collision.HitListener;
+import geometry.Ball;
+import geometry.Point;
+import geometry.Rectangle;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * This class adds the bricks of a level to a game, creating a block only for bricks a ball can currently hit.
+ * A brick can be hit once one of the 4 cells next to it has no brick, so at first only the bricks on the edges
+ * of the level get blocks, and the bricks next to a removed one get theirs when it is removed.
+ * The other bricks stay as records of the level, so levels with many bricks cost a block per exposed brick only.
+ */
+public class LazyBrickField implements HitListener {
+    private static final int EMPTY = -1;
+    private static final byte HIDDEN = 0;
+    private static final byte CREATED = 1;
+    private static final byte REMOVED = 2;
+
+    private LevelDefinition level;
+    //Brick index of each cell of the grid, EMPTY for cells without a brick or whose brick was removed.
+    private int[] cells;
+    private byte[] states;
+    private int hidden;
+    private Simulation game;
+
+    /**
+     * Constructor for the field of a level.
+     * @param level - the level whose bricks are added.
+     */
+    public LazyBrickField(LevelDefinition level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Null level for brick field");
+        }
+        this.level = level;
+        try {
+            this.cells = new int[Math.multiplyExact(level.rows(), level.columns())];
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Level grid is too big", e);
+        }
+        Arrays.fill(this.cells, EMPTY);
+        for (int i = 0; i < level.brickCount(); i++) {
+            this.cells[level.brickRow(i) * level.columns() + level.brickColumn(i)] = i;
+        }
+        this.states = new byte[level.brickCount()];
+        this.hidden = level.brickCount();
+    }
+
+    /**
+     * Add the field to the game: create blocks for the exposed bricks and count every brick as remaining.
+     * @param g - the game the bricks are added to.
+     */
+    public void addToGame(Simulation g) {
+        this.game = g;
+        for (int i = 0; i < this.level.brickCount(); i++) {
+            if (isExposed(this.level.brickRow(i), this.level.brickColumn(i))) {
+                create(i);
+            }
+        }
+        g.getRemainingBlocks().increase(this.level.brickCount());
+    }
+
+    /**
+     * Add the field to the game as a snapshot saved it: the first bricks of the level get blocks, in their order,
+     * and the others stay hidden. The remaining blocks counter is restored by the game.
+     * @param g - the game the bricks are added to.
+     * @param created - amount of bricks that had a block.
+     */
+    void restore(Simulation g, int created) {
+        if (created < 0 || created > this.level.brickCount()) {
+            throw new IllegalArgumentException("Bad amount of created bricks " + created);
+        }
+        this.game = g;
+        for (int i = 0; i < created; i++) {
+            create(i);
+        }
+    }
+
+    /**
+     * Get the level whose bricks the field adds.
+     * @return - the level.
+     */
+    LevelDefinition getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Get the amount of bricks that don't have a block yet.
+     * @return - number of hidden bricks.
+     */
+    public int hiddenCount() {
+        return this.hidden;
+    }
+
+    /**
+     * Get the bricks that don't have a block yet, in the order they were read.
+     * @return - indexes of the hidden bricks in the level.
+     */
+    public int[] hiddenBricks() {
+        int[] result = new int[this.hidden];
+        int next = 0;
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.states[i] == HIDDEN) {
+                result[next++] = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the rectangle of a brick of the level.
+     * @param i - index of the brick.
+     * @return - a new rectangle at the brick's cell.
+     */
+    public Rectangle brickRectangle(int i) {
+        return new Rectangle(new Point(
+                this.level.getOriginX() + this.level.brickColumn(i) * this.level.getCellWidth(),
+                this.level.getOriginY() + this.level.brickRow(i) * this.level.getCellHeight()),
+                this.level.getCellWidth(), this.level.getCellHeight());
+    }
+
+    /**
+     * Get the color of a brick of the level.
+     * @param i - index of the brick.
+     * @return - color of the brick.
+     */
+    public Color brickColor(int i) {
+        return this.level.brickColor(i);
+    }
+
+    /**
+     * Empty the cell of a removed block and create blocks for the bricks it exposed.
+     * Added after the block remover, so it is told about every block the remover removes.
+     * @param beingHit - block that is being removed.
+     * @param hitter - ball that hit it.
+     */
+    @Override
+    public void hitEvent(Block beingHit, Ball hitter) {
+        Rectangle rec = beingHit.getCollisionRectangle();
+        int col = (int) Math.round((rec.getMinX() - this.level.getOriginX()) / this.level.getCellWidth());
+        int row = (int) Math.round((rec.getMinY() - this.level.getOriginY()) / this.level.getCellHeight());
+        int brick = cell(row, col);
+        if (brick == EMPTY || this.states[brick] != CREATED) {
+            return;
+        }
+        this.states[brick] = REMOVED;
+        this.cells[row * this.level.columns() + col] = EMPTY;
+        exposeCell(row - 1, col);
+        exposeCell(row + 1, col);
+        exposeCell(row, col - 1);
+        exposeCell(row, col + 1);
+    }
+
+    private void exposeCell(int row, int col) {
+        int brick = cell(row, col);
+        if (brick != EMPTY && this.states[brick] == HIDDEN) {
+            create(brick);
+        }
+    }
+
+    private boolean isExposed(int row, int col) {
+        return cell(row - 1, col) == EMPTY || cell(row + 1, col) == EMPTY
+                || cell(row, col - 1) == EMPTY || cell(row, col + 1) == EMPTY;
+    }
+
+    /**
+     * Get the brick in a cell, cells out of the grid are empty.
+     */
+    private int cell(int row, int col) {
+        if (row < 0 || col < 0 || row >= this.level.rows() || col >= this.level.columns()) {
+            return EMPTY;
+        }
+        return this.cells[row * this.level.columns() + col];
+    }
+
+    private void create(int brick) {
+        Block block = new Block(brickRectangle(brick), this.level.brickColor(brick));
+        this.states[brick] = CREATED;
+        this.hidden--;
+        this.game.addBrick(block);
+        block.addHitListener(this);
+    }
+}
@@ -0,0 +1,281 @@
+package game;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * This class holds the bricks of a level as compact records of a row, a column and a color index, without
+ * creating a block for any of them. Levels are read line by line from a text format:
+ * <pre>
+ * # Comments and empty lines are skipped.
+ * cell 50 20              (width and height of every brick)
+ * origin 190 71           (upper left corner of the brick in row 0 and column 0)
+ * color a 255 230 240     (a color of the palette: its key and its red, green and blue values)
+ * grid                    (every line from here is a row, one key per column, '.' or ' ' for no brick)
+ * aaaaaaaaaaaa
+ * .aaaaaaaaaaa
+ * </pre>
+ */
+public class LevelDefinition {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_KEY = 128;
+
+    private double cellWidth;
+    private double cellHeight;
+    private double originX;
+    private double originY;
+    private Color[] palette;
+    private int rows;
+    private int columns;
+    private int count;
+    private int[] brickRows;
+    private int[] brickColumns;
+    private byte[] brickColors;
+
+    private LevelDefinition() {
+        this.cellWidth = 50;
+        this.cellHeight = 20;
+        this.palette = new Color[0];
+        this.brickRows = new int[INITIAL_CAPACITY];
+        this.brickColumns = new int[INITIAL_CAPACITY];
+        this.brickColors = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Constructor for a level without bricks on a grid of the given size, whose bricks are added with addBrick.
+     */
+    LevelDefinition(double originX, double originY, double cellWidth, double cellHeight, int rows, int columns) {
+        this();
+        if (cellWidth <= 0 || cellHeight <= 0 || rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Level must have positive cell size");
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Add a brick in a cell of the grid, with a color added to the palette if it isn't in it.
+     */
+    void addBrick(int row, int col, Color color) {
+        if (row < 0 || col < 0 || row >= this.rows || col >= this.columns || color == null) {
+            throw new IllegalArgumentException("No cell " + row + ", " + col + " or null color");
+        }
+        int index = Arrays.asList(this.palette).indexOf(color);
+        if (index < 0) {
+            if (this.palette.length == Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many colors");
+            }
+            index = this.palette.length;
+            this.palette = Arrays.copyOf(this.palette, index + 1);
+            this.palette[index] = color;
+        }
+        add(row, col, index);
+    }
+
+    /**
+     * Read a level, one line at a time, keeping only the records of its bricks.
+     * @param in - reader of the level's text, not closed.
+     * @return - the level.
+     * @throws IOException - if reading fails or the text isn't a valid level.
+     */
+    public static LevelDefinition read(Reader in) throws IOException {
+        BufferedReader reader = (in instanceof BufferedReader) ? (BufferedReader) in : new BufferedReader(in);
+        LevelDefinition level = new LevelDefinition();
+        //Palette index of each key, -1 for keys that aren't in the palette.
+        int[] keys = new int[MAX_KEY];
+        Arrays.fill(keys, -1);
+        boolean inGrid = false;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (inGrid) {
+                level.readRow(line, keys, lineNumber);
+                continue;
+            }
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            try {
+                switch (parts[0]) {
+                    case "cell":
+                        expectParts(parts, 3, lineNumber);
+                        level.cellWidth = Double.parseDouble(parts[1]);
+                        level.cellHeight = Double.parseDouble(parts[2]);
+                        if (level.cellWidth <= 0 || level.cellHeight <= 0) {
+                            throw new IOException("Line " + lineNumber + ": cell size must be positive");
+                        }
+                        break;
+                    case "origin":
+                        expectParts(parts, 3, lineNumber);
+                        level.originX = Double.parseDouble(parts[1]);
+                        level.originY = Double.parseDouble(parts[2]);
+                        break;
+                    case "color":
+                        expectParts(parts, 5, lineNumber);
+                        char key = parts[1].charAt(0);
+                        if (parts[1].length() != 1 || key >= MAX_KEY || key == '.' || keys[key] >= 0) {
+                            throw new IOException("Line " + lineNumber + ": bad color key " + parts[1]);
+                        }
+                        keys[key] = level.palette.length;
+                        level.palette = Arrays.copyOf(level.palette, level.palette.length + 1);
+                        level.palette[keys[key]] = new Color(Integer.parseInt(parts[2]),
+                                Integer.parseInt(parts[3]), Integer.parseInt(parts[4]));
+                        if (level.palette.length > Byte.MAX_VALUE) {
+                            throw new IOException("Line " + lineNumber + ": too many colors");
+                        }
+                        break;
+                    case "grid":
+                        inGrid = true;
+                        break;
+                    default:
+                        throw new IOException("Line " + lineNumber + ": unknown directive " + parts[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Load a level from a UTF-8 text file.
+     * @param file - path of the file.
+     * @return - the level.
+     * @throws IOException - if reading fails or the file isn't a valid level.
+     */
+    public static LevelDefinition load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    private static void expectParts(String[] parts, int amount, int lineNumber) throws IOException {
+        if (parts.length != amount) {
+            throw new IOException("Line " + lineNumber + ": " + parts[0] + " takes " + (amount - 1) + " values");
+        }
+    }
+
+    private void readRow(String line, int[] keys, int lineNumber) throws IOException {
+        int row = this.rows++;
+        for (int col = 0; col < line.length(); col++) {
+            char key = line.charAt(col);
+            if (key == '.' || key == ' ') {
+                continue;
+            }
+            if (key >= MAX_KEY || keys[key] < 0) {
+                throw new IOException("Line " + lineNumber + ": no color for key " + key);
+            }
+            add(row, col, keys[key]);
+            this.columns = Math.max(this.columns, col + 1);
+        }
+    }
+
+    private void add(int row, int col, int color) {
+        if (this.count == this.brickRows.length) {
+            int capacity = this.count * 2;
+            this.brickRows = Arrays.copyOf(this.brickRows, capacity);
+            this.brickColumns = Arrays.copyOf(this.brickColumns, capacity);
+            this.brickColors = Arrays.copyOf(this.brickColors, capacity);
+        }
+        this.brickRows[this.count] = row;
+        this.brickColumns[this.count] = col;
+        this.brickColors[this.count] = (byte) color;
+        this.count++;
+    }
+
+    /**
+     * Get the amount of bricks in the level.
+     * @return - number of bricks.
+     */
+    public int brickCount() {
+        return this.count;
+    }
+
+    /**
+     * Get the amount of rows of the level's grid.
+     * @return - number of rows.
+     */
+    public int rows() {
+        return this.rows;
+    }
+
+    /**
+     * Get the amount of columns of the level's grid.
+     * @return - number of columns.
+     */
+    public int columns() {
+        return this.columns;
+    }
+
+    /**
+     * Get the width of every brick.
+     * @return - width of a grid cell.
+     */
+    public double getCellWidth() {
+        return this.cellWidth;
+    }
+
+    /**
+     * Get the height of every brick.
+     * @return - height of a grid cell.
+     */
+    public double getCellHeight() {
+        return this.cellHeight;
+    }
+
+    /**
+     * Get the x value of the left side of column 0.
+     * @return - x value of the grid.
+     */
+    public double getOriginX() {
+        return this.originX;
+    }
+
+    /**
+     * Get the y value of the top of row 0.
+     * @return - y value of the grid.
+     */
+    public double getOriginY() {
+        return this.originY;
+    }
+
+    /**
+     * Get the row of a brick.
+     * @param i - index of the brick, in the order it was read.
+     * @return - row of the brick.
+     */
+    public int brickRow(int i) {
+        return this.brickRows[i];
+    }
+
+    /**
+     * Get the column of a brick.
+     * @param i - index of the brick, in the order it was read.
+     * @return - column of the brick.
+     */
+    public int brickColumn(int i) {
+        return this.brickColumns[i];
+    }
+
+    /**
+     * Get the color of a brick.
+     * @param i - index of the brick, in the order it was read.
+     * @return - color of the brick, shared by every brick with the same key.
+     */
+    public Color brickColor(int i) {
+        return this.palette[this.brickColors[i]];
+    }
+}
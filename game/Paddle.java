@@ -1,33 +1,32 @@
 package game;
 
 import biuoop.DrawSurface;
-import biuoop.GUI;
-import biuoop.KeyboardSensor;
 import geometry.Ball;
-import geometry.Line;
 import geometry.Point;
+import geometry.RayHit;
 import geometry.Rectangle;
 import graphics.Sprite;
 import collision.Collidable;
 import physics.Velocity;
 
 import java.awt.Color;
-import java.util.List;
 
 public class Paddle implements Sprite, Collidable {
 
-    private KeyboardSensor keyboard;
+    private InputPort input;
     private Block block;
     private final Rectangle shape;
-    private GUI gui;
+    private double screenWidth;
     private GameEnvironment environment;
+    private double previousX;
 
-    public Paddle(Block block, GUI gui, GameEnvironment environment) {
+    public Paddle(Block block, InputPort input, double screenWidth, GameEnvironment environment) {
         this.block = block;
         this.shape = block.getCollisionRectangle();
-        this.gui = gui;
-        this.keyboard = gui.getKeyboardSensor();
+        this.input = input;
+        this.screenWidth = screenWidth;
         this.environment = environment;
+        this.previousX = this.shape.getUpperLeft().getX();
     }
 
     public void moveLeft() {
@@ -35,39 +34,30 @@ public class Paddle implements Sprite, Collidable {
         int movementSensitivity = 8;
         int boundsWidth = 10;
 
-        Point topLeft;
-        double guiWidth = this.gui.getDrawSurface().getWidth();
+        double guiWidth = this.screenWidth;
+        double y = this.shape.getUpperLeft().getY();
 
-        if (getCollisionRectangle().getUpperLeft().getX() > 0) {
-            topLeft = new Point(
-                    getCollisionRectangle().getUpperLeft().getX() - movementSensitivity,
-                    getCollisionRectangle().getUpperLeft().getY()
-            );
+        if (this.shape.getUpperLeft().getX() > 0) {
+            this.shape.setUpperLeft(this.shape.getUpperLeft().getX() - movementSensitivity, y);
         } else {
-            topLeft = new Point(
-                    guiWidth - boundsWidth - this.shape.getWidth(),
-                    this.getCollisionRectangle().getUpperLeft().getY()
-            );
+            this.shape.setUpperLeft(guiWidth - boundsWidth - this.shape.getWidth(), y);
         }
-        this.shape.setUpperLeft(topLeft);
+        this.environment.updateCollidable(this);
     }
 
     public void moveRight() {
         // Values identical to Constants
         int movementSensitivity = 8;
 
-        Point topLeft;
-        double guiWidth = this.gui.getDrawSurface().getWidth();
+        double guiWidth = this.screenWidth;
+        double y = this.shape.getUpperLeft().getY();
 
-        if (this.getCollisionRectangle().getUpperLeft().getX() + this.shape.getWidth() < guiWidth) {
-            topLeft = new Point(
-                    this.getCollisionRectangle().getUpperLeft().getX() + movementSensitivity,
-                    this.getCollisionRectangle().getUpperLeft().getY()
-            );
+        if (this.shape.getUpperLeft().getX() + this.shape.getWidth() < guiWidth) {
+            this.shape.setUpperLeft(this.shape.getUpperLeft().getX() + movementSensitivity, y);
         } else {
-            topLeft = new Point(0, this.getCollisionRectangle().getUpperLeft().getY());
+            this.shape.setUpperLeft(0, y);
         }
-        this.shape.setUpperLeft(topLeft);
+        this.environment.updateCollidable(this);
     }
 
     @Override
@@ -89,16 +79,40 @@ public class Paddle implements Sprite, Collidable {
         );
     }
 
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        // Values identical to Constants
+        int movementSensitivity = 8;
+        double x = this.shape.getUpperLeft().getX();
+        //Don't draw the paddle in the middle of the screen when it wrapped around.
+        if (Math.abs(x - this.previousX) <= movementSensitivity) {
+            x = this.previousX + (x - this.previousX) * alpha;
+        }
+        Rectangle thisRec = this.shape;
+        d.setColor(block.getColor());
+        d.fillRectangle(
+                (int) x,
+                (int) thisRec.getUpperLeft().getY(),
+                (int) thisRec.getWidth(),
+                (int) thisRec.getHeight()
+        );
+        d.setColor(Color.black);
+        d.drawRectangle(
+                (int) x,
+                (int) thisRec.getUpperLeft().getY(),
+                (int) thisRec.getWidth(),
+                (int) thisRec.getHeight()
+        );
+    }
+
     @Override
     public void timePassed() {
-        if (this.keyboard.isPressed(KeyboardSensor.LEFT_KEY)
-                || this.keyboard.isPressed("a")
-                || this.keyboard.isPressed("A")) {
+        this.previousX = this.shape.getUpperLeft().getX();
+        int keys = this.input.pressedKeys();
+        if ((keys & InputPort.LEFT) != 0) {
             moveLeft();
         }
-        if (this.keyboard.isPressed(KeyboardSensor.RIGHT_KEY)
-                || this.keyboard.isPressed("d")
-                || this.keyboard.isPressed("D")) {
+        if ((keys & InputPort.RIGHT) != 0) {
             moveRight();
         }
     }
@@ -110,7 +124,7 @@ public class Paddle implements Sprite, Collidable {
 
     @Override
     public Block getCollisionBlock() {
-        return new Block(shape, Color.ORANGE);
+        return this.block;
     }
 
     @Override
@@ -119,35 +133,48 @@ public class Paddle implements Sprite, Collidable {
             return currentVelocity;
         }
 
-        List<Line> divide = this.shape.getTopLine().divideTo5();
-
-        if (this.shape.getTopLine().isOnLine(collisionPoint) && currentVelocity.getDy() > 0) {
-            for (int j = 1; j < 6; j++) {
-                if (divide.get(j - 1).isOnLine(collisionPoint)) {
-                    switch (j) {
-                        case 1:
-                            return Velocity.fromAngleAndSpeed(300, currentVelocity.getSpeed());
-                        case 2:
-                            return Velocity.fromAngleAndSpeed(330, currentVelocity.getSpeed());
-                        case 3:
-                            return new Velocity(currentVelocity.getDx(), -currentVelocity.getDy());
-                        case 4:
-                            return Velocity.fromAngleAndSpeed(30, currentVelocity.getSpeed());
-                        case 5:
-                            return Velocity.fromAngleAndSpeed(60, currentVelocity.getSpeed());
-                        default:
-                    }
-                }
+        double x = collisionPoint.getX(), y = collisionPoint.getY();
+        double speed = currentVelocity.getSpeed();
+
+        if (this.shape.isOnSide(RayHit.TOP, x, y) && currentVelocity.getDy() > 0) {
+            switch (zone(x)) {
+                case 0:
+                    currentVelocity.setFromAngleAndSpeed(300, speed);
+                    break;
+                case 1:
+                    currentVelocity.setFromAngleAndSpeed(330, speed);
+                    break;
+                case 2:
+                    currentVelocity.reflectHorizontal();
+                    break;
+                case 3:
+                    currentVelocity.setFromAngleAndSpeed(30, speed);
+                    break;
+                default:
+                    currentVelocity.setFromAngleAndSpeed(60, speed);
             }
-        } else if (this.shape.getRightLine().isOnLine(collisionPoint)
-                || this.shape.getLeftLine().isOnLine(collisionPoint)) {
-            return new Velocity(-currentVelocity.getDx(), currentVelocity.getDy());
+        } else if (this.shape.isOnSide(RayHit.RIGHT, x, y) || this.shape.isOnSide(RayHit.LEFT, x, y)) {
+            currentVelocity.reflectVertical();
         }
 
         return currentVelocity;
     }
 
-    public void addToGame(Game g) {
+    /**
+     * Find which of the 5 equal zones of the paddle's top a hit is in, without dividing the top line.
+     * A hit on the border of two zones belongs to the left one, same as checking the zones from left to right.
+     * @param x - x value of the hit on the top of the paddle.
+     * @return - index of the zone, from 0 for the leftmost to 4 for the rightmost.
+     */
+    private int zone(double x) {
+        // Same threshold as the line class
+        double threshold = 0.0001;
+        double size = this.shape.getWidth() / 5;
+        int zone = (int) Math.ceil((x - this.shape.getMinX() - threshold) / size) - 1;
+        return Math.max(0, Math.min(4, zone));
+    }
+
+    public void addToGame(Simulation g) {
         g.addCollidable(this);
         g.addSprite(this);
     }
@@ -0,0 +1,21 @@
+package game;
+
+import biuoop.DrawSurface;
+
+/**
+ * This interface describes where the frames of the game are drawn.
+ */
+public interface RenderPort {
+
+    /**
+     * Get a surface to draw a new frame on.
+     * @return - surface of the new frame.
+     */
+    DrawSurface beginFrame();
+
+    /**
+     * Show a frame once everything was drawn on it.
+     * @param d - surface returned by beginFrame.
+     */
+    void endFrame(DrawSurface d);
+}
@@ -0,0 +1,41 @@
+package game;
+
+import util.RandomSource;
+
+/**
+ * This class is an input port that plays the paddle by itself, holding random keys for random amounts of ticks,
+ * like a player who moves the paddle without looking. The same random source always gives the same keys.
+ */
+public class ScriptedInput implements InputPort {
+    //Most ticks a key is held for.
+    private static final int MAX_HOLD = 30;
+
+    private RandomSource random;
+    private int keys;
+    private int ticksLeft;
+
+    /**
+     * Constructor for the scripted input.
+     * @param random - source of the keys and how long each is held.
+     */
+    public ScriptedInput(RandomSource random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Null random source for scripted input");
+        }
+        this.random = random;
+    }
+
+    /**
+     * Get the keys of the next tick, choosing new keys once the current ones were held long enough.
+     * @return - bit mask of the pressed keys, made of LEFT and RIGHT.
+     */
+    @Override
+    public int pressedKeys() {
+        if (this.ticksLeft <= 0) {
+            this.keys = this.random.nextInt((LEFT | RIGHT) + 1);
+            this.ticksLeft = this.random.nextInt(MAX_HOLD) + 1;
+        }
+        this.ticksLeft--;
+        return this.keys;
+    }
+}
@@ -0,0 +1,923 @@
+package game;
+
+import biuoop.DrawSurface;
+import graphics.BallRemover;
+import graphics.BlockRemover;
+import geometry.Ball;
+import geometry.Point;
+import geometry.Rectangle;
+import graphics.Sprite;
+import graphics.SpriteCollection;
+import graphics.StaticLayer;
+import collision.Collidable;
+import collision.HitEventQueue;
+import collision.HitListener;
+import collision.ProfiledHitListener;
+import physics.Velocity;
+import score.ScoreIndicator;
+import score.ScoreTrackingListener;
+import util.Counter;
+import util.FrameProfiler;
+import util.RandomSource;
+import util.SlotMap;
+
+import java.awt.Color;
+
+/**
+ * This class holds the game's logic: the sprites, the environment and the listeners.
+ * It doesn't need a window, the keys are read from an input port and frames are drawn on a render port,
+ * so it can also run headless as fast as possible.
+ */
+public class Simulation {
+    //One pink per row of the default blocks, from the top row down.
+    private static final Color[] PINKS = {
+            new Color(255, 230, 240), // שורה 0 – ורוד כמעט לבן
+            new Color(255, 190, 210), // שורה 1 – ורוד בהיר
+            new Color(255, 150, 180), // שורה 2 – ורוד בינוני
+            new Color(235, 110, 160), // שורה 3 – ורוד חזק
+            new Color(200, 70, 130),  // שורה 4 – ורוד כהה
+            new Color(160, 30, 100)   // שורה 5 – ורוד עמוק מאוד
+    };
+
+    private SpriteCollection sprites;
+    private StaticLayer staticLayer;
+    //The blocks to clear, the balls and the paddle, in the order they were added, for taking snapshots.
+    private SlotMap<Block> bricks;
+    private SlotMap<Ball> balls;
+    private BallSystem ballSystem;
+    private boolean systemBalls;
+    private boolean parallelBalls;
+    private int ballsAmount;
+    private Paddle paddle;
+    private LazyBrickField brickField;
+    private BrickGrid brickGrid;
+    private boolean packedBricks;
+    private boolean sweptBalls;
+    private ImpactScheduler impacts;
+    private int minBallSpeed;
+    private int maxBallSpeed;
+    private GameEnvironment environment;
+    private InputPort input;
+    private BlockRemover blockRemover;
+    private BallRemover ballRemover;
+    private ScoreTrackingListener scoreTrackingListener;
+    private ScoreIndicator scoreIndicator;
+    private HitListener blockRemoverListener;
+    private HitListener ballRemoverListener;
+    private HitListener scoreListener;
+    private HitEventQueue hitEvents;
+    private FrameProfiler profiler;
+    private RandomSource random;
+    private long ticks;
+
+    /**
+     * Constructor for the simulation, will create a new sprite collection and environment.
+     * @param input - where the paddle reads the pressed keys from.
+     */
+    public Simulation(InputPort input) {
+        this(input, new GameEnvironment());
+    }
+
+    /**
+     * Constructor for the simulation with a custom game environment.
+     * @param input - where the paddle reads the pressed keys from.
+     * @param environment - empty game environment to use.
+     */
+    public Simulation(InputPort input, GameEnvironment environment) {
+        this(input, environment, new RandomSource());
+    }
+
+    /**
+     * Constructor for a simulation whose random decisions all come from the given source.
+     * Two simulations with sources of the same seed and the same input play exactly the same game.
+     * @param input - where the paddle reads the pressed keys from.
+     * @param environment - empty game environment to use.
+     * @param random - source of every random value of the game.
+     */
+    public Simulation(InputPort input, GameEnvironment environment, RandomSource random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Null random source for simulation");
+        }
+        this.random = random;
+        this.sprites = new SpriteCollection();
+        //The layer is drawn first, under every moving sprite.
+        this.staticLayer = new StaticLayer(800, 620);
+        this.sprites.addSprite(this.staticLayer);
+        this.bricks = new SlotMap<>();
+        this.balls = new SlotMap<>();
+        this.environment = environment;
+        this.input = input;
+        this.hitEvents = new HitEventQueue();
+        this.profiler = new FrameProfiler();
+        this.environment.setProfiler(this.profiler);
+        this.minBallSpeed = 4;
+        this.maxBallSpeed = 8;
+        this.ballsAmount = 3;
+        this.ticks = 0;
+        if (input != null) {
+            input.attach(this);
+        }
+    }
+
+    /**
+     * Add a new collidable object to the game's environment.
+     * @param c - collidable to be added.
+     */
+    public void addCollidable(Collidable c) {
+
+        this.environment.addCollidable(c);
+    }
+
+    /**
+     * Add a new sprite object to the game's environment.
+     * @param s - sprite to be added.
+     */
+    public void addSprite(Sprite s) {
+        this.sprites.addSprite(s);
+    }
+
+    /**
+     * Add a block that doesn't move to the cached static layer, it is drawn above the blocks added before it.
+     * @param block - block to be added.
+     */
+    public void addStaticBlock(Block block) {
+        this.staticLayer.addBlock(block);
+    }
+
+    /**
+     * Remove a block from the cached static layer.
+     * @param block - block to be removed.
+     */
+    public void removeStaticBlock(Block block) {
+        this.staticLayer.removeBlock(block);
+    }
+
+    /**
+     * Add a brick grid to the cached static layer, drawn over its blocks.
+     * @param grid - grid to be added.
+     */
+    public void addStaticGrid(BrickGrid grid) {
+        this.staticLayer.addGrid(grid);
+    }
+
+    /**
+     * Remove a brick grid from the cached static layer.
+     * @param grid - grid to be removed.
+     */
+    public void removeStaticGrid(BrickGrid grid) {
+        this.staticLayer.removeGrid(grid);
+    }
+
+    /**
+     * Draw an area of the cached static layer again, after something drawn there changed.
+     * @param area - the area that changed.
+     */
+    public void redrawStaticArea(Rectangle area) {
+        this.staticLayer.redrawArea(area);
+    }
+
+    /**
+     * Remove a collidable object from the game environment.
+     * @param c - collidable to be removed.
+     */
+    public void removeCollidable(Collidable c) {
+
+        this.environment.removeCollidable(c);
+        if (c instanceof Block && this.bricks.remove((Block) c)) {
+            this.bricks.compact();
+        }
+    }
+
+    /**
+     * Remove a sprite object from the game environment.
+     * @param s - sprite object to be removed.
+     */
+    public void removeSprite(Sprite s) {
+
+        this.sprites.removeSprite(s);
+        if (s instanceof Ball && this.balls.remove((Ball) s)) {
+            this.balls.compact();
+            if (this.impacts != null) {
+                this.impacts.remove((Ball) s);
+            }
+        }
+    }
+
+
+    /**
+     * Choose how initialize stores the bricks.
+     * Packed bricks are kept in one brick grid with a byte per brick, instead of a block object per brick.
+     * @param packed - true to keep the bricks in a brick grid.
+     */
+    public void setPackedBricks(boolean packed) {
+        this.packedBricks = packed;
+    }
+
+    /**
+     * Choose how the balls created by initialize look for collisions.
+     * Swept balls move their whole circle and hit a block once their edge reaches it, so fast balls can't pass
+     * through thin blocks. Other balls only check the path of their center.
+     * @param swept - true to create swept balls.
+     */
+    public void setSweptCollision(boolean swept) {
+        this.sweptBalls = swept;
+    }
+
+    /**
+     * Choose how initialize stores the balls, restore stores them the way the saved game did.
+     * Balls in a ball system are kept in primitive arrays and moved in one loop, for games with tens of thousands
+     * of balls. They check the path of their center, so they play the same game as ball objects that do, but
+     * they are never swept or event driven.
+     * @param system - true to keep the balls in a ball system.
+     */
+    public void setBallSystem(boolean system) {
+        this.systemBalls = system;
+    }
+
+    /**
+     * Getter for the ball system holding the balls.
+     * @return - the ball system, null if the balls are ball objects.
+     */
+    public BallSystem getBallSystem() {
+        return this.ballSystem;
+    }
+
+    /**
+     * Choose if the balls of the ball system look for their collisions on several threads.
+     * The hits are still applied one ball after the other in the balls' order, so the game is the same.
+     * Only balls in a ball system are moved in parallel.
+     * @param parallel - true to move the balls of the ball system in parallel.
+     */
+    public void setParallelBalls(boolean parallel) {
+        this.parallelBalls = parallel;
+        if (this.ballSystem != null) {
+            this.ballSystem.setParallel(parallel);
+        }
+    }
+
+    /**
+     * Choose the amount of balls initialize creates, 3 by default.
+     * @param amount - number of balls.
+     */
+    public void setBallCount(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Ball count must be positive");
+        }
+        this.ballsAmount = amount;
+    }
+
+    /**
+     * Choose how the balls added from now on are moved.
+     * Event driven balls are moved by an impact scheduler, which finds each ball's next collision once and only
+     * handles collisions when they happen, instead of every ball looking for a collision every tick.
+     * Has to be chosen before the balls are added.
+     * @param eventDriven - true to move the balls by their impacts, false for a step of every ball every tick.
+     */
+    public void setEventDriven(boolean eventDriven) {
+        if (eventDriven && this.impacts == null) {
+            this.impacts = new ImpactScheduler(this.environment);
+        } else if (!eventDriven && this.impacts != null) {
+            this.environment.setListener(null);
+            this.impacts = null;
+        }
+    }
+
+    /**
+     * Getter for the impact scheduler of the event driven balls.
+     * @return - the scheduler, null if the balls aren't event driven.
+     */
+    public ImpactScheduler getImpactScheduler() {
+        return this.impacts;
+    }
+
+    /**
+     * Choose the range of the random speeds initialize gives the balls, 4 to 8 by default.
+     * @param minSpeed - lowest speed, included.
+     * @param maxSpeed - highest speed, included.
+     */
+    public void setBallSpeed(int minSpeed, int maxSpeed) {
+        if (minSpeed <= 0 || maxSpeed < minSpeed) {
+            throw new IllegalArgumentException("Ball speed range must be positive and not empty");
+        }
+        this.minBallSpeed = minSpeed;
+        this.maxBallSpeed = maxSpeed;
+    }
+
+    /**
+     * Function to initialize the game's objects.
+     * Will create balls, paddle, blocks etc.
+     */
+    public void initialize() {
+        createListeners();
+
+        generateBounds();
+
+        int numOfRows = 6;
+        int blockWidth = 50;
+        int blockHeight = 20;
+        int boundsWidth = 10;
+        int boundsHeight = 10;
+        int guiWidth = 800;
+
+        generateBlocks(
+                numOfRows,
+                blockWidth,
+                blockHeight,
+                boundsWidth,
+                boundsHeight,
+                guiWidth
+        );
+
+        generatePaddle();
+        generateBalls();
+
+        this.scoreIndicator.addToGame(this);
+    }
+
+    /**
+     * Function to initialize the game's objects with the bricks of a level instead of the default ones.
+     * Blocks are created only for the bricks a ball can hit, the rest when the bricks next to them are removed,
+     * or when the bricks are packed they are all kept in a brick grid.
+     * The balls start under the 9th row of 20 pixels, so the level's bricks should be above it.
+     * @param level - the level to play.
+     */
+    public void initialize(LevelDefinition level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Null level to initialize");
+        }
+        createListeners();
+
+        generateBounds();
+
+        if (this.packedBricks) {
+            addBrickGrid(BrickGrid.fromLevel(level));
+            getRemainingBlocks().increase(level.brickCount());
+        } else {
+            this.brickField = new LazyBrickField(level);
+            this.brickField.addToGame(this);
+        }
+
+        generatePaddle();
+        generateBalls();
+
+        this.scoreIndicator.addToGame(this);
+    }
+
+    /**
+     * Function to initialize the game's objects from a snapshot instead of creating new ones.
+     * Objects are added in the same order initialize adds them, so the game goes on exactly like the one
+     * the snapshot was taken of. The bricks and the balls are stored the way the saved game stored them, and the
+     * random source goes on from the state it had.
+     * @param snapshot - state of the game to start from.
+     */
+    public void restore(WorldSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Null snapshot to restore");
+        }
+        createListeners();
+
+        generateBounds();
+
+        if (snapshot.getBrickKind() == WorldSnapshot.BRICK_FIELD) {
+            restoreBrickField(snapshot);
+        } else {
+            int blocks = snapshot.blockCount() - snapshot.getLayoutBlocks();
+            for (int i = 0; i < blocks; i++) {
+                Rectangle rec = new Rectangle(new Point(snapshot.blockX(i), snapshot.blockY(i)),
+                        snapshot.blockWidth(i), snapshot.blockHeight(i));
+                addBrick(new Block(rec, new Color(snapshot.blockColor(i), true)));
+            }
+            if (snapshot.getBrickKind() == WorldSnapshot.BRICK_GRID) {
+                restoreBrickGrid(snapshot, blocks);
+            }
+        }
+        this.blockRemover.getRemainingBlocks().increase(snapshot.getRemainingBlocks());
+
+        addPaddle(new Point(snapshot.getPaddleX(), snapshot.getPaddleY()));
+
+        if (snapshot.isBallSystem()) {
+            addBallSystem(snapshot.ballCount());
+        }
+        for (int i = 0; i < snapshot.ballCount(); i++) {
+            if (this.ballSystem != null) {
+                this.ballSystem.addBall(new Point(snapshot.ballX(i), snapshot.ballY(i)), snapshot.ballRadius(i),
+                        new Color(snapshot.ballColor(i), true), new Velocity(snapshot.ballDx(i), snapshot.ballDy(i)));
+                continue;
+            }
+            Ball ball = new Ball(new Point(snapshot.ballX(i), snapshot.ballY(i)), snapshot.ballRadius(i),
+                    new Color(snapshot.ballColor(i), true), new Velocity(snapshot.ballDx(i), snapshot.ballDy(i)));
+            ball.setSweptCollision(snapshot.ballSwept(i));
+            addBall(ball);
+        }
+        this.ballRemover.getRemainingBalls().increase(snapshot.getRemainingBalls());
+
+        getScore().increase(snapshot.getScore());
+        this.ticks = snapshot.getTicks();
+        this.random.setState(snapshot.getRandomState(), snapshot.getRandomGamma());
+        this.scoreIndicator.addToGame(this);
+    }
+
+    /**
+     * Add a field of a level made of the saved bricks, where the bricks that had a block get one again.
+     */
+    private void restoreBrickField(WorldSnapshot snapshot) {
+        LevelDefinition level = new LevelDefinition(snapshot.getGridX(), snapshot.getGridY(),
+                snapshot.getCellWidth(), snapshot.getCellHeight(), snapshot.getGridRows(), snapshot.getGridColumns());
+        for (int i = 0; i < snapshot.blockCount(); i++) {
+            level.addBrick(snapshot.blockRow(i), snapshot.blockColumn(i), new Color(snapshot.blockColor(i), true));
+        }
+        this.brickField = new LazyBrickField(level);
+        this.brickField.restore(this, snapshot.blockCount() - snapshot.getLayoutBlocks());
+    }
+
+    /**
+     * Add a brick grid holding the saved blocks from the given one on.
+     */
+    private void restoreBrickGrid(WorldSnapshot snapshot, int first) {
+        BrickGrid grid = new BrickGrid(snapshot.getGridX(), snapshot.getGridY(), snapshot.getCellWidth(),
+                snapshot.getCellHeight(), snapshot.getGridRows(), snapshot.getGridColumns());
+        for (int i = first; i < snapshot.blockCount(); i++) {
+            grid.setBrick(snapshot.blockRow(i), snapshot.blockColumn(i), new Color(snapshot.blockColor(i), true));
+        }
+        addBrickGrid(grid);
+    }
+
+    /**
+     * Take a snapshot of the game, between two ticks.
+     * @return - the state of the balls, the blocks left to clear, the paddle and the counters.
+     */
+    public WorldSnapshot snapshot() {
+        Rectangle paddleRec = this.paddle.getCollisionRectangle();
+        WorldSnapshot snapshot = new WorldSnapshot(this.random.getSeed(), this.ticks,
+                paddleRec.getUpperLeft().getX(), paddleRec.getUpperLeft().getY(), getScore().getValue(),
+                getRemainingBlocks().getValue(), getRemainingBalls().getValue(),
+                this.balls.size() + (this.ballSystem == null ? 0 : this.ballSystem.size()),
+                this.bricks.size() + (this.brickField == null ? 0 : this.brickField.hiddenCount())
+                        + (this.brickGrid == null ? 0 : this.brickGrid.brickCount()));
+        snapshot.setRandomState(this.random.getState(), this.random.getGamma());
+        snapshot.setBallSystem(this.ballSystem != null);
+        int next = 0;
+        for (int i = 0; i < this.balls.slotCount(); i++) {
+            Ball ball = this.balls.slot(i);
+            if (ball != null) {
+                Velocity v = ball.getVelocity();
+                snapshot.setBall(next++, ball.getCenter().getX(), ball.getCenter().getY(), v.getDx(), v.getDy(),
+                        ball.getSize(), ball.getColor().getRGB(), ball.isSweptCollision());
+            }
+        }
+        if (this.ballSystem != null) {
+            for (int i = 0; i < this.ballSystem.size(); i++) {
+                snapshot.setBall(next++, this.ballSystem.getX(i), this.ballSystem.getY(i), this.ballSystem.getDx(i),
+                        this.ballSystem.getDy(i), this.ballSystem.getRadius(i), this.ballSystem.getColor(i).getRGB(),
+                        false);
+            }
+        }
+        next = 0;
+        for (int i = 0; i < this.bricks.slotCount(); i++) {
+            Block block = this.bricks.slot(i);
+            if (block != null) {
+                Rectangle rec = block.getCollisionRectangle();
+                snapshot.setBlock(next++, rec.getUpperLeft().getX(), rec.getUpperLeft().getY(), rec.getWidth(),
+                        rec.getHeight(), block.getColor().getRGB());
+            }
+        }
+        if (this.brickField != null) {
+            for (int brick : this.brickField.hiddenBricks()) {
+                Rectangle rec = this.brickField.brickRectangle(brick);
+                snapshot.setBlock(next++, rec.getUpperLeft().getX(), rec.getUpperLeft().getY(), rec.getWidth(),
+                        rec.getHeight(), this.brickField.brickColor(brick).getRGB());
+            }
+        }
+        if (this.brickGrid != null) {
+            for (int row = 0; row < this.brickGrid.rows(); row++) {
+                for (int col = 0; col < this.brickGrid.columns(); col++) {
+                    if (this.brickGrid.hasBrick(row, col)) {
+                        Rectangle rec = this.brickGrid.cellRectangle(row, col);
+                        snapshot.setBlock(next++, rec.getUpperLeft().getX(), rec.getUpperLeft().getY(),
+                                rec.getWidth(), rec.getHeight(), this.brickGrid.brickColor(row, col).getRGB());
+                    }
+                }
+            }
+        }
+        if (this.brickField != null) {
+            LevelDefinition level = this.brickField.getLevel();
+            snapshot.setBrickLayout(WorldSnapshot.BRICK_FIELD, level.getOriginX(), level.getOriginY(),
+                    level.getCellWidth(), level.getCellHeight(), level.rows(), level.columns(),
+                    this.brickField.hiddenCount());
+        } else if (this.brickGrid != null) {
+            snapshot.setBrickLayout(WorldSnapshot.BRICK_GRID, this.brickGrid.getOriginX(), this.brickGrid.getOriginY(),
+                    this.brickGrid.getCellWidth(), this.brickGrid.getCellHeight(), this.brickGrid.rows(),
+                    this.brickGrid.columns(), this.brickGrid.brickCount());
+        }
+        return snapshot;
+    }
+
+    private void createListeners() {
+        this.blockRemover = new BlockRemover(this, new Counter());
+        this.ballRemover = new BallRemover(this, new Counter());
+        this.scoreIndicator = new ScoreIndicator(new Counter());
+        this.scoreTrackingListener =
+                new ScoreTrackingListener(this.scoreIndicator.getScoreCounter());
+        this.blockRemoverListener = new ProfiledHitListener(this.blockRemover, this.profiler);
+        this.ballRemoverListener = new ProfiledHitListener(this.ballRemover, this.profiler);
+        this.scoreListener = new ProfiledHitListener(this.scoreTrackingListener, this.profiler);
+    }
+
+
+    private void generateBounds() {
+
+        int guiWidth = 800;
+        int guiHeight = 600;
+
+        int boundsWidth = 10;
+        int boundsHeight = 10;
+
+        int scoreFontSize = 20;
+
+        Color backgroundColor = new Color(255, 245, 245);
+        Color boundsColor = Color.LIGHT_GRAY;
+
+        Rectangle backgroundRect = new Rectangle(
+                new Point(boundsWidth, scoreFontSize + boundsHeight),
+                guiWidth - 2 * boundsWidth,
+                guiHeight - boundsHeight
+        );
+        Block backgroundBlock = new Block(backgroundRect, backgroundColor);
+        backgroundBlock.addBackground(this);
+
+        Rectangle leftRec = new Rectangle(
+                new Point(0, scoreFontSize),
+                boundsWidth,
+                guiHeight
+        );
+        Block leftBound = new Block(leftRec, boundsColor);
+        leftBound.addToGame(this);
+
+        Rectangle rightRec = new Rectangle(
+                new Point(guiWidth - boundsWidth, scoreFontSize),
+                boundsWidth,
+                guiHeight
+        );
+        Block rightBound = new Block(rightRec, boundsColor);
+        rightBound.addToGame(this);
+
+        Rectangle topRec = new Rectangle(
+                new Point(0, scoreFontSize),
+                guiWidth,
+                boundsHeight
+        );
+        Block topBound = new Block(topRec, boundsColor);
+        topBound.addToGame(this);
+
+        Rectangle bottomRec = new Rectangle(
+                new Point(0, guiHeight + boundsHeight),
+                guiWidth,
+                boundsHeight
+        );
+        Block bottomBound = new Block(bottomRec, boundsColor);
+        bottomBound.setBlockRemoved(true);
+        bottomBound.addToGame(this);
+    }
+
+
+
+
+    /**
+     * Generate balls for the game.
+     */
+    private void generateBalls() {
+        int defaultRadius = 8;
+
+        int guiWidth = 800;
+        int guiHeight = 600;
+        int boundsWidth = 10;
+        int boundsHeight = 10;
+        int paddleHeight = 7;
+        int blockHeight = 20;
+        int numOfRows = 6;
+
+        int minX = boundsWidth + defaultRadius;
+        int maxX = guiWidth - boundsWidth - defaultRadius;
+        int minY = boundsHeight + defaultRadius + (numOfRows + 3) * blockHeight;
+        int maxY = guiHeight - boundsHeight - defaultRadius - paddleHeight;
+
+        this.ballRemover.getRemainingBalls().increase(this.ballsAmount);
+
+        if (this.systemBalls) {
+            addBallSystem(this.ballsAmount);
+        }
+        for (int i = 0; i < this.ballsAmount; i++) {
+            Point startPos = Point.randomPoint(minX, maxX, minY, maxY, this.random);
+            Velocity velocity = Velocity.randVelocity(this.random, this.minBallSpeed, this.maxBallSpeed);
+            if (this.ballSystem != null) {
+                this.ballSystem.addBall(startPos, defaultRadius, new Color(255, 182, 193), velocity);
+                continue;
+            }
+            Ball ball = new Ball(startPos, defaultRadius, new Color(255, 182, 193), velocity);
+            ball.setSweptCollision(this.sweptBalls);
+            addBall(ball);
+        }
+    }
+
+    /**
+     * Add the ball system in the place of the sprites of the first ball, so it moves in the same order.
+     */
+    private void addBallSystem(int capacity) {
+        this.ballSystem = new BallSystem(this.environment, capacity);
+        this.ballSystem.setParallel(this.parallelBalls);
+        this.ballSystem.addToGame(this);
+        this.ballSystem.addHitListener(this.ballRemoverListener);
+    }
+
+    private void addBall(Ball ball) {
+        ball.setGameEnvironment(this.environment);
+        ball.addToGame(this);
+        ball.addHitListener(this.ballRemoverListener);
+        this.balls.add(ball);
+        if (this.impacts != null) {
+            this.impacts.add(ball);
+        }
+    }
+
+
+    /**
+     * Generate the paddle for the game.
+     * Location will be based on the size of the paddle and the size of the bounds.
+     */
+    public void generatePaddle() {
+        int guiWidth = 800;
+        int guiHeight = 600;
+
+        int paddleWidth = 80;
+        int paddleHeight = 7;
+
+        int boundsHeight = 10;
+
+        Point topLeft = new Point(
+                (double) (guiWidth - paddleWidth) / 2,
+                guiHeight - boundsHeight - paddleHeight
+        );
+
+        addPaddle(topLeft);
+    }
+
+    private void addPaddle(Point topLeft) {
+        int guiWidth = 800;
+
+        int paddleWidth = 80;
+        int paddleHeight = 7;
+
+        Color paddleColor = Color.ORANGE;
+
+        Rectangle paddleRec = new Rectangle(topLeft, paddleWidth, paddleHeight);
+        this.paddle = new Paddle(
+                new Block(paddleRec, paddleColor),
+                this.input,
+                guiWidth,
+                this.environment
+        );
+        this.paddle.addToGame(this);
+    }
+
+
+    private Color pinkByRow(int row) {
+        return PINKS[row];
+    }
+
+    /**
+     * Generate blocks to be on the top part of the gui.
+     *
+     * @param rowsAmount - amount of rows of blocks to create.
+     * @param blockWidth - width of the blocks.
+     * @param blockHeight - height of the blocks.
+     * @param boundWidth     - width of the GUI boundaries.
+     * @param boundHeight     - height of the GUI boundaries.
+     * @param guiWidth   - total width of the gui.
+     */
+    public void generateBlocks(int rowsAmount, int blockWidth, int blockHeight,
+                               int boundWidth, int boundHeight, int guiWidth) {
+
+        //Packed bricks are all kept in one grid, with a column per brick of the top row.
+        BrickGrid grid = !this.packedBricks ? null : new BrickGrid(guiWidth - rowsAmount * 2 * blockWidth - boundWidth,
+                3 * blockHeight + boundHeight + 1, blockWidth, blockHeight, rowsAmount, rowsAmount * 2);
+        for (int j = 0; j < rowsAmount; j++) {
+            // One unique pink color per row
+            Color color = pinkByRow(j);
+
+            for (int i = 0; i < rowsAmount * 2 - j; i++) {
+                if (grid != null) {
+                    grid.setBrick(j, rowsAmount * 2 - 1 - i, color);
+                    continue;
+                }
+                double xValue = guiWidth - ((i + 1) * blockWidth + boundWidth);
+                double yValue = (j + 3) * blockHeight + boundHeight + 1;
+
+                Rectangle rec = new Rectangle(new Point(xValue, yValue), blockWidth, blockHeight);
+                addBrick(new Block(rec, color));
+            }
+        }
+        if (grid != null) {
+            addBrickGrid(grid);
+        }
+
+        this.blockRemover.getRemainingBlocks()
+                .increase((3 * rowsAmount * rowsAmount + rowsAmount) / 2);
+    }
+
+    private void addBrickGrid(BrickGrid grid) {
+        grid.addHitListener(this.blockRemoverListener);
+        grid.addHitListener(this.scoreListener);
+        grid.addToGame(this);
+        this.brickGrid = grid;
+    }
+
+    /**
+     * Add a block the balls have to clear, with the block remover and score listeners.
+     * @param block - block to be added.
+     */
+    void addBrick(Block block) {
+        block.addHitListener(this.blockRemoverListener);
+        block.addHitListener(this.scoreListener);
+        block.addToGame(this);
+        this.bricks.add(block);
+    }
+
+
+
+    /**
+     * Getter for the game environment.
+     * @return - the environment holding the collidables.
+     */
+    public GameEnvironment getEnvironment() {
+        return this.environment;
+    }
+
+    /**
+     * Getter for the paddle.
+     * @return - the paddle, null before the game is initialized.
+     */
+    Paddle getPaddle() {
+        return this.paddle;
+    }
+
+    /**
+     * Getter for the balls in the game, in the order they were added.
+     * @return - the balls, some slots may be empty while balls are removed.
+     */
+    SlotMap<Ball> getBalls() {
+        return this.balls;
+    }
+
+    /**
+     * Getter for the counter of the remaining blocks.
+     * @return - counter of the blocks left to clear.
+     */
+    public Counter getRemainingBlocks() {
+        return this.blockRemover.getRemainingBlocks();
+    }
+
+    /**
+     * Getter for the counter of the remaining balls.
+     * @return - counter of the balls still in the game.
+     */
+    public Counter getRemainingBalls() {
+        return this.ballRemover.getRemainingBalls();
+    }
+
+    /**
+     * Getter for the score counter.
+     * @return - counter of the user's score.
+     */
+    public Counter getScore() {
+        return this.scoreIndicator.getScoreCounter();
+    }
+
+    /**
+     * Getter for the score listener.
+     * @return - listener that keeps track of the score.
+     */
+    public ScoreTrackingListener getScoreTrackingListener() {
+        return this.scoreTrackingListener;
+    }
+
+    /**
+     * Getter for the queue of the hit events of the current tick.
+     * @return - queue that is drained when each tick ends.
+     */
+    public HitEventQueue getHitEvents() {
+        return this.hitEvents;
+    }
+
+    /**
+     * Getter for the random source of the game.
+     * @return - source of every random value of the game, its seed reproduces the game.
+     */
+    public RandomSource getRandom() {
+        return this.random;
+    }
+
+    /**
+     * Getter for the frame profiler.
+     * @return - profiler measuring the phases of each frame.
+     */
+    public FrameProfiler getProfiler() {
+        return this.profiler;
+    }
+
+    /**
+     * Get the amount of ticks played.
+     * @return - number of calls to tick.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Check if the game is still played.
+     * @return - true while there are blocks and balls left, otherwise false.
+     */
+    public boolean isRunning() {
+        return getRemainingBlocks().getValue() > 0 && getRemainingBalls().getValue() > 0;
+    }
+
+    /**
+     * Check if the player cleared all the blocks.
+     * @return - true if no blocks are left.
+     */
+    public boolean isLevelCleared() {
+        return getRemainingBlocks().getValue() <= 0;
+    }
+
+    /**
+     * Advance the game by one tick.
+     * The hits of the tick are delivered to the listeners after every sprite moved.
+     */
+    public void tick() {
+        this.profiler.beginTick();
+        long start = this.profiler.start();
+        this.sprites.notifyAllTimePassed();
+        //Event driven balls only remembered where they were, the scheduler moves them after the paddle moved.
+        if (this.impacts != null) {
+            this.impacts.advance();
+        }
+        this.hitEvents.drain();
+        this.profiler.end(FrameProfiler.TICK, start);
+        this.profiler.endTick();
+        this.ticks++;
+    }
+
+    /**
+     * Draw the current state of the game on the render port.
+     * @param renderer - where to draw the frame.
+     */
+    public void render(RenderPort renderer) {
+        DrawSurface d = renderer.beginFrame();
+        long start = this.profiler.start();
+        this.sprites.drawAllOn(d);
+        this.profiler.end(FrameProfiler.DRAW, start);
+        start = this.profiler.start();
+        renderer.endFrame(d);
+        this.profiler.end(FrameProfiler.SHOW, start);
+    }
+
+    /**
+     * Draw the game part of the way between the last two ticks on the render port.
+     * @param renderer - where to draw the frame.
+     * @param alpha - part of the way from the previous tick to the last one, between 0 and 1.
+     */
+    public void render(RenderPort renderer, double alpha) {
+        DrawSurface d = renderer.beginFrame();
+        long start = this.profiler.start();
+        this.sprites.drawAllOn(d, alpha);
+        this.profiler.end(FrameProfiler.DRAW, start);
+        start = this.profiler.start();
+        renderer.endFrame(d);
+        this.profiler.end(FrameProfiler.SHOW, start);
+    }
+
+    /**
+     * Give the level cleared points once the game ended.
+     */
+    public void finish() {
+        if (isLevelCleared()) {
+            this.scoreTrackingListener.levelCleared();
+        }
+    }
+
+    /**
+     * Play the game without drawing and without waiting between ticks, until it ends.
+     * @param maxTicks - most ticks to play.
+     * @return - number of ticks played.
+     */
+    public long runHeadless(long maxTicks) {
+        long played = 0;
+        while (isRunning() && played < maxTicks) {
+            tick();
+            played++;
+        }
+        if (!isRunning()) {
+            finish();
+        }
+        return played;
+    }
+}
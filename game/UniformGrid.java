@@ -0,0 +1,217 @@
+package game;
+
+import collision.Collidable;
+import geometry.Rectangle;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a uniform grid spatial index of collidable objects.
+ * Every collidable is stored in each cell its rectangle overlaps, so a trajectory is only
+ * tested against the collidables found in the cells it passes through.
+ * Objects outside the grid area are kept in the border cells.
+ */
+public class UniformGrid implements CollidableIndex {
+    //Margin around rectangles and trajectories, bigger than the threshold used by the line class.
+    private static final double MARGIN = 0.001;
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<List<Entry>> cells;
+    private final Map<Collidable, Entry> entries;
+    private final List<Integer> freeIds;
+    private int nextId;
+
+    /**
+     * Constructor for the grid.
+     * @param width - width of the area covered by the grid.
+     * @param height - height of the area covered by the grid.
+     * @param cellSize - width and height of every cell.
+     */
+    public UniformGrid(double width, double height, double cellSize) {
+        if (width <= 0 || height <= 0 || cellSize <= 0) {
+            throw new IllegalArgumentException("Grid sizes must be positive");
+        }
+        this.cellSize = cellSize;
+        this.columns = (int) Math.ceil(width / cellSize);
+        this.rows = (int) Math.ceil(height / cellSize);
+        this.cells = new ArrayList<>(this.columns * this.rows);
+        for (int i = 0; i < this.columns * this.rows; i++) {
+            this.cells.add(new ArrayList<>());
+        }
+        this.entries = new IdentityHashMap<>();
+        this.freeIds = new ArrayList<>();
+        this.nextId = 0;
+    }
+
+    /**
+     * Add a collidable to every cell its rectangle overlaps.
+     * @param c - collidable to be added.
+     */
+    @Override
+    public void insert(Collidable c) {
+        if (c == null || this.entries.containsKey(c)) {
+            return;
+        }
+        int id = this.freeIds.isEmpty() ? this.nextId++ : this.freeIds.remove(this.freeIds.size() - 1);
+        Entry entry = new Entry(c, id);
+        this.entries.put(c, entry);
+        setCellRange(entry);
+        addToCells(entry);
+    }
+
+    /**
+     * Remove a collidable from all of its cells.
+     * @param c - collidable to be removed.
+     */
+    @Override
+    public void remove(Collidable c) {
+        Entry entry = this.entries.remove(c);
+        if (entry != null) {
+            removeFromCells(entry, entry.minCol, entry.maxCol, entry.minRow, entry.maxRow);
+            this.freeIds.add(entry.id);
+        }
+    }
+
+    /**
+     * Move a collidable to the cells of its current rectangle.
+     * Has to be called whenever the rectangle of a stored collidable changes.
+     * @param c - collidable that moved.
+     */
+    @Override
+    public void update(Collidable c) {
+        Entry entry = this.entries.get(c);
+        if (entry == null) {
+            return;
+        }
+        int minCol = entry.minCol, maxCol = entry.maxCol, minRow = entry.minRow, maxRow = entry.maxRow;
+        setCellRange(entry);
+        if (minCol == entry.minCol && maxCol == entry.maxCol && minRow == entry.minRow && maxRow == entry.maxRow) {
+            return;
+        }
+        removeFromCells(entry, minCol, maxCol, minRow, maxRow);
+        addToCells(entry);
+    }
+
+    /**
+     * Collect every collidable stored in a cell the trajectory passes through, each one only once.
+     * @param startX - x value of the start of the trajectory.
+     * @param startY - y value of the start of the trajectory.
+     * @param endX - x value of the end of the trajectory.
+     * @param endY - y value of the end of the trajectory.
+     * @param radius - distance from the trajectory that still counts as a hit.
+     * @param query - query whose candidates are filled, a new round is started first.
+     */
+    @Override
+    public void query(double startX, double startY, double endX, double endY, double radius, CollisionQuery query) {
+        query.newRound();
+        List<Collidable> candidates = query.getCandidates();
+        double margin = MARGIN + radius;
+        double minX = Math.min(startX, endX);
+        double maxX = Math.max(startX, endX);
+        double minY = Math.min(startY, endY) - margin;
+        double maxY = Math.max(startY, endY) + margin;
+        boolean vertical = startX == endX;
+        double slope = vertical ? Double.POSITIVE_INFINITY : (endY - startY) / (endX - startX);
+        double intercept = startY - slope * startX;
+
+        int lastCol = column(maxX + margin);
+        for (int col = column(minX - margin); col <= lastCol; col++) {
+            double fromY = minY;
+            double toY = maxY;
+            if (!vertical) {
+                //Y values of the trajectory where it is close enough to this column.
+                double left = col == 0 ? minX : Math.max(minX, col * this.cellSize - margin);
+                double right = col == this.columns - 1 ? maxX : Math.min(maxX, (col + 1) * this.cellSize + margin);
+                double leftY = slope * left + intercept;
+                double rightY = slope * right + intercept;
+                fromY = Math.max(fromY, Math.min(leftY, rightY) - margin);
+                toY = Math.min(toY, Math.max(leftY, rightY) + margin);
+            }
+            int lastRow = row(toY);
+            for (int r = row(fromY); r <= lastRow; r++) {
+                List<Entry> cell = this.cells.get(r * this.columns + col);
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry entry = cell.get(i);
+                    if (query.mark(entry.id)) {
+                        candidates.add(entry.collidable);
+                    }
+                }
+            }
+        }
+    }
+
+    private void setCellRange(Entry entry) {
+        Rectangle rect = entry.collidable.getCollisionRectangle();
+        entry.minCol = column(rect.getMinX() - MARGIN);
+        entry.maxCol = column(rect.getMaxX() + MARGIN);
+        entry.minRow = row(rect.getMinY() - MARGIN);
+        entry.maxRow = row(rect.getMaxY() + MARGIN);
+    }
+
+    private void addToCells(Entry entry) {
+        for (int r = entry.minRow; r <= entry.maxRow; r++) {
+            for (int col = entry.minCol; col <= entry.maxCol; col++) {
+                this.cells.get(r * this.columns + col).add(entry);
+            }
+        }
+    }
+
+    private void removeFromCells(Entry entry, int minCol, int maxCol, int minRow, int maxRow) {
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                removeFromCell(this.cells.get(r * this.columns + col), entry);
+            }
+        }
+    }
+
+    /**
+     * Remove an entry from a cell by moving the cell's last entry into its place, so nothing is shifted.
+     */
+    private static void removeFromCell(List<Entry> cell, Entry entry) {
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) == entry) {
+                int last = cell.size() - 1;
+                cell.set(i, cell.get(last));
+                cell.remove(last);
+                return;
+            }
+        }
+    }
+
+    private int column(double x) {
+        return clamp((int) Math.floor(x / this.cellSize), this.columns);
+    }
+
+    private int row(double y) {
+        return clamp((int) Math.floor(y / this.cellSize), this.rows);
+    }
+
+    private static int clamp(int index, int size) {
+        if (index < 0) {
+            return 0;
+        }
+        return Math.min(index, size - 1);
+    }
+
+    /**
+     * A collidable with the range of cells it is stored in.
+     */
+    private static class Entry {
+        private final Collidable collidable;
+        private final int id;
+        private int minCol;
+        private int maxCol;
+        private int minRow;
+        private int maxRow;
+
+        Entry(Collidable collidable, int id) {
+            this.collidable = collidable;
+            this.id = id;
+        }
+    }
+}
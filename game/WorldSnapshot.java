@@ -0,0 +1,530 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class holds the whole state of a game between two ticks: the balls, the blocks left to clear,
+ * the paddle, the score, the counters of the remaining blocks and balls and the state of the random source.
+ * It also keeps how the game stored its balls and bricks, and the grid of the bricks of a level or a brick grid,
+ * so the game is restored into the same objects.
+ * The state is kept in arrays of primitive values, one array per field, and saved the same way, so a file is
+ * read with a few bulk copies from a memory mapped buffer instead of an object at a time.
+ * Positions and velocities are saved as exact doubles, so a restored game goes on exactly like the saved one.
+ */
+public class WorldSnapshot {
+    /**
+     * First bytes of every snapshot file, "ARKS".
+     */
+    private static final int MAGIC = 0x41524B53;
+    private static final short VERSION = 2;
+    //Magic, version, seed, random state and gamma, ticks, paddle x and y, score, remaining blocks and balls,
+    //ball and brick kinds, brick grid origin, cell size, rows and columns, layout blocks, ball and block amounts.
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + 4 * Long.BYTES + 6 * Double.BYTES
+            + 8 * Integer.BYTES + 2;
+    private static final int BALL_BYTES = 4 * Double.BYTES + 2 * Integer.BYTES + 1;
+    private static final int BLOCK_BYTES = 4 * Double.BYTES + Integer.BYTES;
+
+    //Kinds of brick storage: every brick a block, a level with blocks only for its exposed bricks, a brick grid.
+    static final byte BRICK_BLOCKS = 0;
+    static final byte BRICK_FIELD = 1;
+    static final byte BRICK_GRID = 2;
+
+    private final long seed;
+    private long randomState;
+    private long randomGamma;
+    private final long ticks;
+    private final double paddleX;
+    private final double paddleY;
+    private final int score;
+    private final int remainingBlocks;
+    private final int remainingBalls;
+    private boolean ballSystem;
+
+    //The brick storage and its grid. For a level every block is a brick of the level, and the last layout
+    //blocks are the ones that had no block yet. For a brick grid the last layout blocks are the grid's bricks.
+    private byte brickKind;
+    private double gridX;
+    private double gridY;
+    private double cellWidth;
+    private double cellHeight;
+    private int gridRows;
+    private int gridColumns;
+    private int layoutBlocks;
+
+    private final double[] ballX;
+    private final double[] ballY;
+    private final double[] ballDx;
+    private final double[] ballDy;
+    private final int[] ballRadius;
+    private final int[] ballColor;
+    private final byte[] ballSwept;
+
+    private final double[] blockX;
+    private final double[] blockY;
+    private final double[] blockWidth;
+    private final double[] blockHeight;
+    private final int[] blockColor;
+
+    /**
+     * Constructor for a snapshot with empty arrays for the given amounts of balls and blocks,
+     * filled by the simulation taking it.
+     */
+    WorldSnapshot(long seed, long ticks, double paddleX, double paddleY, int score, int remainingBlocks,
+                  int remainingBalls, int balls, int blocks) {
+        if (balls < 0 || blocks < 0) {
+            throw new IllegalArgumentException("Negative amount of balls or blocks");
+        }
+        this.seed = seed;
+        this.ticks = ticks;
+        this.paddleX = paddleX;
+        this.paddleY = paddleY;
+        this.score = score;
+        this.remainingBlocks = remainingBlocks;
+        this.remainingBalls = remainingBalls;
+        this.ballX = new double[balls];
+        this.ballY = new double[balls];
+        this.ballDx = new double[balls];
+        this.ballDy = new double[balls];
+        this.ballRadius = new int[balls];
+        this.ballColor = new int[balls];
+        this.ballSwept = new byte[balls];
+        this.blockX = new double[blocks];
+        this.blockY = new double[blocks];
+        this.blockWidth = new double[blocks];
+        this.blockHeight = new double[blocks];
+        this.blockColor = new int[blocks];
+    }
+
+    /**
+     * Copy the snapshot with its blocks in another order, which is the order restore adds them in.
+     * @param order - index of the block to put at each place, a permutation of the blocks.
+     */
+    WorldSnapshot withBlockOrder(int[] order) {
+        if (order.length != blockCount()) {
+            throw new IllegalArgumentException("Block order must have every block");
+        }
+        WorldSnapshot copy = new WorldSnapshot(this.seed, this.ticks, this.paddleX, this.paddleY, this.score,
+                this.remainingBlocks, this.remainingBalls, ballCount(), blockCount());
+        copy.setRandomState(this.randomState, this.randomGamma);
+        copy.setBallSystem(this.ballSystem);
+        copy.setBrickLayout(this.brickKind, this.gridX, this.gridY, this.cellWidth, this.cellHeight, this.gridRows,
+                this.gridColumns, this.layoutBlocks);
+        for (int i = 0; i < ballCount(); i++) {
+            copy.setBall(i, this.ballX[i], this.ballY[i], this.ballDx[i], this.ballDy[i], this.ballRadius[i],
+                    this.ballColor[i], this.ballSwept[i] != 0);
+        }
+        for (int i = 0; i < order.length; i++) {
+            int from = order[i];
+            copy.setBlock(i, this.blockX[from], this.blockY[from], this.blockWidth[from], this.blockHeight[from],
+                    this.blockColor[from]);
+        }
+        return copy;
+    }
+
+    /**
+     * Set the state the random source of the game had.
+     */
+    void setRandomState(long state, long gamma) {
+        this.randomState = state;
+        this.randomGamma = gamma;
+    }
+
+    /**
+     * Set if the balls were kept in a ball system.
+     */
+    void setBallSystem(boolean system) {
+        this.ballSystem = system;
+    }
+
+    /**
+     * Set how the bricks were stored, with the grid of the level or brick grid, and the amount of blocks at the
+     * end of the blocks that were kept by it.
+     */
+    void setBrickLayout(byte kind, double originX, double originY, double width, double height, int rows,
+                        int columns, int blocks) {
+        if (kind < BRICK_BLOCKS || kind > BRICK_GRID || blocks < 0 || blocks > blockCount()) {
+            throw new IllegalArgumentException("Bad brick layout");
+        }
+        this.brickKind = kind;
+        this.gridX = originX;
+        this.gridY = originY;
+        this.cellWidth = width;
+        this.cellHeight = height;
+        this.gridRows = rows;
+        this.gridColumns = columns;
+        this.layoutBlocks = blocks;
+    }
+
+    /**
+     * Set the state of a ball.
+     */
+    void setBall(int i, double x, double y, double dx, double dy, int radius, int color, boolean swept) {
+        this.ballX[i] = x;
+        this.ballY[i] = y;
+        this.ballDx[i] = dx;
+        this.ballDy[i] = dy;
+        this.ballRadius[i] = radius;
+        this.ballColor[i] = color;
+        this.ballSwept[i] = (byte) (swept ? 1 : 0);
+    }
+
+    /**
+     * Set the state of a block.
+     */
+    void setBlock(int i, double x, double y, double width, double height, int color) {
+        this.blockX[i] = x;
+        this.blockY[i] = y;
+        this.blockWidth[i] = width;
+        this.blockHeight[i] = height;
+        this.blockColor[i] = color;
+    }
+
+    /**
+     * Get the seed of the random source of the saved game.
+     * @return - the seed.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    long getRandomState() {
+        return this.randomState;
+    }
+
+    long getRandomGamma() {
+        return this.randomGamma;
+    }
+
+    /**
+     * Check if the balls of the saved game were kept in a ball system.
+     * @return - true for a ball system, false for ball objects.
+     */
+    public boolean isBallSystem() {
+        return this.ballSystem;
+    }
+
+    byte getBrickKind() {
+        return this.brickKind;
+    }
+
+    double getGridX() {
+        return this.gridX;
+    }
+
+    double getGridY() {
+        return this.gridY;
+    }
+
+    double getCellWidth() {
+        return this.cellWidth;
+    }
+
+    double getCellHeight() {
+        return this.cellHeight;
+    }
+
+    int getGridRows() {
+        return this.gridRows;
+    }
+
+    int getGridColumns() {
+        return this.gridColumns;
+    }
+
+    int getLayoutBlocks() {
+        return this.layoutBlocks;
+    }
+
+    /**
+     * Get the amount of ticks played before the snapshot was taken.
+     * @return - number of ticks.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Get the x value of the paddle's upper left corner.
+     * @return - x value of the paddle.
+     */
+    public double getPaddleX() {
+        return this.paddleX;
+    }
+
+    /**
+     * Get the y value of the paddle's upper left corner.
+     * @return - y value of the paddle.
+     */
+    public double getPaddleY() {
+        return this.paddleY;
+    }
+
+    /**
+     * Get the saved score.
+     * @return - value of the score counter.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Get the saved value of the remaining blocks counter.
+     * @return - number of blocks left to clear.
+     */
+    public int getRemainingBlocks() {
+        return this.remainingBlocks;
+    }
+
+    /**
+     * Get the saved value of the remaining balls counter.
+     * @return - number of balls left.
+     */
+    public int getRemainingBalls() {
+        return this.remainingBalls;
+    }
+
+    /**
+     * Get the amount of saved balls.
+     * @return - number of balls.
+     */
+    public int ballCount() {
+        return this.ballX.length;
+    }
+
+    /**
+     * Get the amount of saved blocks.
+     * @return - number of blocks.
+     */
+    public int blockCount() {
+        return this.blockX.length;
+    }
+
+    double ballX(int i) {
+        return this.ballX[i];
+    }
+
+    double ballY(int i) {
+        return this.ballY[i];
+    }
+
+    double ballDx(int i) {
+        return this.ballDx[i];
+    }
+
+    double ballDy(int i) {
+        return this.ballDy[i];
+    }
+
+    int ballRadius(int i) {
+        return this.ballRadius[i];
+    }
+
+    int ballColor(int i) {
+        return this.ballColor[i];
+    }
+
+    boolean ballSwept(int i) {
+        return this.ballSwept[i] != 0;
+    }
+
+    double blockX(int i) {
+        return this.blockX[i];
+    }
+
+    double blockY(int i) {
+        return this.blockY[i];
+    }
+
+    double blockWidth(int i) {
+        return this.blockWidth[i];
+    }
+
+    double blockHeight(int i) {
+        return this.blockHeight[i];
+    }
+
+    int blockColor(int i) {
+        return this.blockColor[i];
+    }
+
+    /**
+     * Get the row of the grid a block is in, for a level or a brick grid.
+     */
+    int blockRow(int i) {
+        return (int) Math.round((this.blockY[i] - this.gridY) / this.cellHeight);
+    }
+
+    /**
+     * Get the column of the grid a block is in, for a level or a brick grid.
+     */
+    int blockColumn(int i) {
+        return (int) Math.round((this.blockX[i] - this.gridX) / this.cellWidth);
+    }
+
+    /**
+     * Get the size of the snapshot in bytes.
+     * @return - number of bytes written by write.
+     */
+    public int byteSize() {
+        return HEADER_BYTES + ballCount() * BALL_BYTES + blockCount() * BLOCK_BYTES;
+    }
+
+    /**
+     * Write the snapshot to the buffer, from its position.
+     * @param buffer - buffer with at least byte size bytes left.
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(this.seed);
+        buffer.putLong(this.randomState);
+        buffer.putLong(this.randomGamma);
+        buffer.putLong(this.ticks);
+        buffer.putDouble(this.paddleX);
+        buffer.putDouble(this.paddleY);
+        buffer.putInt(this.score);
+        buffer.putInt(this.remainingBlocks);
+        buffer.putInt(this.remainingBalls);
+        buffer.put((byte) (this.ballSystem ? 1 : 0));
+        buffer.put(this.brickKind);
+        buffer.putDouble(this.gridX);
+        buffer.putDouble(this.gridY);
+        buffer.putDouble(this.cellWidth);
+        buffer.putDouble(this.cellHeight);
+        buffer.putInt(this.gridRows);
+        buffer.putInt(this.gridColumns);
+        buffer.putInt(this.layoutBlocks);
+        buffer.putInt(ballCount());
+        buffer.putInt(blockCount());
+        putDoubles(buffer, this.ballX);
+        putDoubles(buffer, this.ballY);
+        putDoubles(buffer, this.ballDx);
+        putDoubles(buffer, this.ballDy);
+        putInts(buffer, this.ballRadius);
+        putInts(buffer, this.ballColor);
+        buffer.put(this.ballSwept);
+        putDoubles(buffer, this.blockX);
+        putDoubles(buffer, this.blockY);
+        putDoubles(buffer, this.blockWidth);
+        putDoubles(buffer, this.blockHeight);
+        putInts(buffer, this.blockColor);
+    }
+
+    /**
+     * Read a snapshot from the buffer, from its position.
+     * @param buffer - buffer holding a snapshot written by write.
+     * @return - the snapshot.
+     * @throws IOException - if the buffer doesn't hold a whole snapshot.
+     */
+    public static WorldSnapshot read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a world snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        long seed = buffer.getLong();
+        long randomState = buffer.getLong();
+        long randomGamma = buffer.getLong();
+        long ticks = buffer.getLong();
+        double paddleX = buffer.getDouble();
+        double paddleY = buffer.getDouble();
+        int score = buffer.getInt();
+        int remainingBlocks = buffer.getInt();
+        int remainingBalls = buffer.getInt();
+        boolean ballSystem = buffer.get() != 0;
+        byte brickKind = buffer.get();
+        double gridX = buffer.getDouble();
+        double gridY = buffer.getDouble();
+        double cellWidth = buffer.getDouble();
+        double cellHeight = buffer.getDouble();
+        int gridRows = buffer.getInt();
+        int gridColumns = buffer.getInt();
+        int layoutBlocks = buffer.getInt();
+        int balls = buffer.getInt();
+        int blocks = buffer.getInt();
+        if (balls < 0 || blocks < 0
+                || (long) balls * BALL_BYTES + (long) blocks * BLOCK_BYTES > buffer.remaining()) {
+            throw new IOException("Truncated world snapshot");
+        }
+        WorldSnapshot snapshot = new WorldSnapshot(seed, ticks, paddleX, paddleY, score, remainingBlocks,
+                remainingBalls, balls, blocks);
+        snapshot.setRandomState(randomState, randomGamma);
+        snapshot.setBallSystem(ballSystem);
+        try {
+            snapshot.setBrickLayout(brickKind, gridX, gridY, cellWidth, cellHeight, gridRows, gridColumns,
+                    layoutBlocks);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad brick layout in world snapshot", e);
+        }
+        getDoubles(buffer, snapshot.ballX);
+        getDoubles(buffer, snapshot.ballY);
+        getDoubles(buffer, snapshot.ballDx);
+        getDoubles(buffer, snapshot.ballDy);
+        getInts(buffer, snapshot.ballRadius);
+        getInts(buffer, snapshot.ballColor);
+        buffer.get(snapshot.ballSwept);
+        getDoubles(buffer, snapshot.blockX);
+        getDoubles(buffer, snapshot.blockY);
+        getDoubles(buffer, snapshot.blockWidth);
+        getDoubles(buffer, snapshot.blockHeight);
+        getInts(buffer, snapshot.blockColor);
+        return snapshot;
+    }
+
+    /**
+     * Save the snapshot to a file, replacing it if it exists.
+     * @param file - path of the file.
+     * @throws IOException - if writing fails.
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(byteSize());
+        write(buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Load a snapshot from a file, mapping the file to memory instead of reading it through a stream.
+     * @param file - path of the file.
+     * @return - the snapshot.
+     * @throws IOException - if reading fails or the file isn't a snapshot.
+     */
+    public static WorldSnapshot load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        }
+    }
+
+    private static void putDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static void getDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+    }
+
+    private static void getInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+}
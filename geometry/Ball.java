@@ -1,29 +1,40 @@
 package geometry;
 
 import biuoop.DrawSurface;
+import collision.Collidable;
+import collision.HitEventQueue;
 import collision.HitListener;
+import collision.HitListenerList;
 import collision.HitNotifier;
 import game.Block;
-import game.Game;
+import game.Simulation;
 import game.GameEnvironment;
 import graphics.Sprite;
 import collision.CollisionInfo;
 import physics.Velocity;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * This class to represent a ball in the GUI.
  */
 public class Ball implements Sprite, HitNotifier {
+    //Most collisions handled in one step when using swept collisions.
+    private static final int MAX_HITS_PER_STEP = 4;
+    //Distance kept between the ball and a surface it touched.
+    private static final double SKIN = 0.01;
+
     private Point center;
     private int radius;
     private Color color;
     private Velocity velocity;
     private GameEnvironment environment;
-    private List<HitListener> hitListeners = new ArrayList<>();
+    private HitListenerList hitListeners = new HitListenerList();
+    private HitEventQueue hitEvents;
+    private boolean sweptCollision;
+    private boolean eventDriven;
+    private double previousX;
+    private double previousY;
 
     // Boundary settings (no Constants usage)
     private int guiWidth;
@@ -43,6 +54,18 @@ public class Ball implements Sprite, HitNotifier {
         this.radius = radius;
         this.color = color;
         this.velocity = velocity;
+        if (center != null) {
+            this.previousX = center.getX();
+            this.previousY = center.getY();
+        }
+    }
+
+    /**
+     * Constructor for balls whose state is kept somewhere else, which override the getters of the state they
+     * are asked for. Such a ball has no center, color or velocity of its own and isn't moved by its own steps.
+     */
+    protected Ball() {
+        this(null, 0, null, null);
     }
 
     /**
@@ -77,6 +100,14 @@ public class Ball implements Sprite, HitNotifier {
         return (int) this.center.getY();
     }
 
+    /**
+     * Get the exact center of this ball.
+     * @return - the center point, changed in place as the ball moves.
+     */
+    public Point getCenter() {
+        return this.center;
+    }
+
     /**
      * Get the radius size of this ball.
      * @return - integer value of this ball's radius.
@@ -130,34 +161,149 @@ public class Ball implements Sprite, HitNotifier {
         this.environment = gameEnvironment;
     }
 
+    /**
+     * Check if the ball uses swept collisions.
+     * @return - true if the whole circle is checked for collisions, false if only its center is.
+     */
+    public boolean isSweptCollision() {
+
+        return this.sweptCollision;
+    }
+
+    /**
+     * Change the collision mode of the ball.
+     * Swept collisions move the whole circle along its path and can handle a few hits in one step,
+     * so fast and big balls don't pass through corners and thin blocks.
+     * @param sweptCollision - true to check the whole circle for collisions, false to check only its center.
+     */
+    public void setSweptCollision(boolean sweptCollision) {
+
+        this.sweptCollision = sweptCollision;
+    }
+
+    /**
+     * Check if the ball is moved by an impact scheduler instead of its own steps.
+     * @return - true if the ball is event driven, otherwise false.
+     */
+    public boolean isEventDriven() {
+        return this.eventDriven;
+    }
+
+    /**
+     * Change who moves the ball. An event driven ball is moved by an impact scheduler, which knows in which ticks
+     * the ball can collide, and its own steps only remember where it was for drawing.
+     * @param eventDriven - true if an impact scheduler moves the ball, false for its own steps.
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
     /**
      * Change the center point of the ball according to the current velocity.
      */
     public void moveOneStep() {
-        //Make sure we have a game environment set for the ball.
-        if (environment == null) {
+        //Make sure we have a game environment set for the ball, and that nobody else moves it.
+        if (environment == null || this.eventDriven) {
+            return;
+        }
+        moveWithCollisions();
+    }
+
+    /**
+     * Move the ball one step along its velocity, handling the collisions on the way and the GUI boundaries.
+     * This is the ball's own step, an impact scheduler uses it for the steps in which its ball can collide.
+     */
+    public void moveWithCollisions() {
+        if (this.sweptCollision) {
+            moveSwept();
+            checkBoundaryCollision();
             return;
         }
         //Calculate the trajectory of the ball and get info for potential collision.
-        Line path = new Line(center, this.velocity.applyToPoint(center));
-        CollisionInfo hitInfo = this.environment.getClosestCollision(path);
+        double startX = this.center.getX();
+        double startY = this.center.getY();
+        CollisionInfo hitInfo = this.environment.findClosestCollision(startX, startY,
+                startX + this.velocity.getDx(), startY + this.velocity.getDy(), 0);
         if (hitInfo == null) {
             //No collision was detected, keep moving.
-            this.center = this.getVelocity().applyToPoint(this.center);
+            this.velocity.applyInPlace(this.center);
         } else {
+            Collidable collidable = hitInfo.collisionObject();
+            Point collisionPoint = hitInfo.collisionPoint();
             //Check if we hit a death block.
-            if (hitInfo.collisionObject().getCollisionBlock().isBlockRemoved()) {
-                notifyExit(hitInfo.collisionObject().getCollisionBlock(), this);
+            if (collidable.getCollisionBlock().isBlockRemoved()) {
+                notifyExit(collidable.getCollisionBlock(), this);
             }
+            // Adjust the position to be slightly away from the collision point, before the hit changes the velocity.
+            moveCenterToCollision(collisionPoint);
             // Calculate the new velocity after hitting an object.
-            Velocity newVelocity = hitInfo.collisionObject().hit(this, hitInfo.collisionPoint(), this.velocity);
-            // Adjust the position to be slightly away from the collision point.
-            this.center = moveToCollision(hitInfo.collisionPoint(), this.velocity);
-            this.velocity = newVelocity;
+            this.velocity = collidable.hit(this, collisionPoint, this.velocity);
         }
         checkBoundaryCollision();
     }
 
+    /**
+     * Move the ball one step along its velocity without looking for collisions, handling only the GUI boundaries.
+     * It is exactly the ball's own step when nothing is hit, for an impact scheduler that knows nothing is.
+     * @return - true if a GUI boundary moved the ball or changed its velocity, otherwise false.
+     */
+    public boolean moveFreely() {
+        this.velocity.applyInPlace(this.center);
+        return checkBoundaryCollision();
+    }
+
+    /**
+     * Move the whole circle along the velocity, handling every collision on the way.
+     * The circle hits a rectangle once its center reaches the rectangle grown by the radius.
+     * After each hit the ball continues with the new velocity for the rest of the step.
+     */
+    private void moveSwept() {
+        double remaining = 1;
+        for (int hits = 0; hits < MAX_HITS_PER_STEP && remaining > 0; hits++) {
+            double startX = this.center.getX();
+            double startY = this.center.getY();
+            double endX = startX + this.velocity.getDx() * remaining;
+            double endY = startY + this.velocity.getDy() * remaining;
+            CollisionInfo hitInfo = this.environment.findClosestCollision(startX, startY, endX, endY, this.radius);
+            if (hitInfo == null) {
+                this.center.set(endX, endY);
+                return;
+            }
+            double time = hitInfo.collisionTime();
+            keepOffSurface(startX + (endX - startX) * time, startY + (endY - startY) * time,
+                    hitInfo.collisionPoint());
+            //Check if we hit a death block.
+            if (hitInfo.collisionObject().getCollisionBlock().isBlockRemoved()) {
+                notifyExit(hitInfo.collisionObject().getCollisionBlock(), this);
+                return;
+            }
+            this.velocity = hitInfo.collisionObject().hit(this, hitInfo.collisionPoint(), this.velocity);
+            remaining *= 1 - time;
+        }
+    }
+
+    /**
+     * Move the center a little away from the point it touches, so the next cast doesn't start on the surface.
+     * @param contactX - x value of the center of the ball when it touches the surface.
+     * @param contactY - y value of the center of the ball when it touches the surface.
+     * @param collisionPoint - the point of the surface that is touched.
+     */
+    private void keepOffSurface(double contactX, double contactY, Point collisionPoint) {
+        double x = contactX;
+        double y = contactY;
+        if (x < collisionPoint.getX()) {
+            x -= SKIN;
+        } else if (x > collisionPoint.getX()) {
+            x += SKIN;
+        }
+        if (y < collisionPoint.getY()) {
+            y -= SKIN;
+        } else if (y > collisionPoint.getY()) {
+            y += SKIN;
+        }
+        this.center.set(x, y);
+    }
+
     /**
      * Move the ball to collision point and adjust to prevent sticking to blocks.
      * @param collisionPoint - point of collision.
@@ -165,53 +311,58 @@ public class Ball implements Sprite, HitNotifier {
      * @return - the new center point of the ball.
      */
     public Point moveToCollision(Point collisionPoint, Velocity velocity) {
-        double adjustedX = collisionPoint.getX();
-        double adjustedY = collisionPoint.getY();
-        if (velocity.getDx() < 0) {
-            adjustedX += this.radius;
-        } else if (velocity.getDx() > 0) {
-            adjustedX -= this.radius;
-        }
-        if (velocity.getDy() < 0) {
-            adjustedY += this.radius;
-        } else if (velocity.getDy() > 0) {
-            adjustedY -= this.radius;
-        }
-        return new Point(adjustedX, adjustedY);
+        return new Point(collisionPoint.getX() - Math.signum(velocity.getDx()) * this.radius,
+                collisionPoint.getY() - Math.signum(velocity.getDy()) * this.radius);
+    }
+
+    /**
+     * Same as move to collision with the ball's velocity, changing the center instead of creating a new one.
+     * @param collisionPoint - point of collision.
+     */
+    private void moveCenterToCollision(Point collisionPoint) {
+        this.center.set(collisionPoint.getX() - Math.signum(this.velocity.getDx()) * this.radius,
+                collisionPoint.getY() - Math.signum(this.velocity.getDy()) * this.radius);
     }
 
     /**
      * Check collision on GUI boundaries and adjust accordingly the center and velocity.
+     * @return - true if a boundary moved the ball, otherwise false.
      */
-    private void checkBoundaryCollision() {
+    private boolean checkBoundaryCollision() {
         // If boundaries were not set, do nothing (prevents wrong behavior / zeros).
         if (guiWidth <= 0 || guiHeight <= 0) {
-            return;
+            return false;
         }
+        boolean bounced = false;
 
         //Check top boundary.
         if (this.center.getY() - this.radius <= boundsHeight) {
             this.velocity.setDy(-this.velocity.getDy());
             this.center.setY(this.radius + boundsHeight);
+            bounced = true;
         }
         //Check right boundary.
         if (this.center.getX() + this.radius + boundsWidth >= guiWidth) {
             this.velocity.setDx(-this.velocity.getDx());
             this.center.setX(guiWidth - this.radius - boundsWidth);
+            bounced = true;
         }
         //Check left boundary.
         if (this.center.getX() - this.radius <= boundsWidth) {
             this.velocity.setDx(-this.velocity.getDx());
             this.center.setX(this.radius + boundsWidth);
+            bounced = true;
         }
+        return bounced;
     }
 
     /**
      * Add the ball to the game as a sprite.
      * @param g - instance of a game.
      */
-    public void addToGame(Game g) {
+    public void addToGame(Simulation g) {
         g.addSprite(this);
+        this.hitEvents = g.getHitEvents();
     }
 
     /**
@@ -221,24 +372,35 @@ public class Ball implements Sprite, HitNotifier {
      * @param exitBall - the ball that exist the GUI.
      */
     private void notifyExit(Block beingHit, Ball exitBall) {
-        // Make a copy of the hitListeners before iterating over them.
-        List<HitListener> listeners = new ArrayList<>(this.hitListeners);
-        // Notify all listeners about a hit event:
-        for (HitListener hl : listeners) {
-            hl.hitEvent(beingHit, exitBall);
-        }
+        this.hitListeners.notifyHit(this.hitEvents, beingHit, exitBall);
+    }
+
+    /**
+     * Get the id of the ball in queued hit events, for balls that aren't their own object.
+     * @return - id of the ball, 0 for a ball object.
+     */
+    public int getEventId() {
+        return 0;
+    }
+
+    /**
+     * Get the ball a queued hit event was about.
+     * @param id - id the ball had when the event was queued.
+     * @return - the ball, a ball object is always itself. Balls that aren't their own object return null if the
+     * ball was removed in the meantime.
+     */
+    public Ball fromEventId(int id) {
+        return this;
     }
 
     /**
      * Function to remove this ball from the game.
      * @param game - game reference to remove the ball from.
      */
-    public void removeFromGame(Game game) {
+    public void removeFromGame(Simulation game) {
         if (game != null) {
             game.removeSprite(this);
-            for (int i = 0; i < this.hitListeners.size(); i++) {
-                removeHitListener(this.hitListeners.get(i));
-            }
+            this.hitListeners.clear();
         }
     }
 
@@ -250,23 +412,31 @@ public class Ball implements Sprite, HitNotifier {
         surface.drawCircle(this.getX(), this.getY(), this.getSize());
     }
 
+    @Override
+    public void drawOn(DrawSurface surface, double alpha) {
+        int x = (int) (this.previousX + (this.center.getX() - this.previousX) * alpha);
+        int y = (int) (this.previousY + (this.center.getY() - this.previousY) * alpha);
+        surface.setColor(this.color);
+        surface.fillCircle(x, y, this.getSize());
+        surface.setColor(Color.BLACK);
+        surface.drawCircle(x, y, this.getSize());
+    }
+
     @Override
     public void timePassed() {
+        this.previousX = this.center.getX();
+        this.previousY = this.center.getY();
         moveOneStep();
     }
 
     @Override
     public void addHitListener(HitListener hl) {
-        if (hl != null) {
-            this.hitListeners.add(hl);
-        }
+        this.hitListeners.add(hl);
     }
 
     @Override
     public void removeHitListener(HitListener hl) {
-        if (hl != null) {
-            this.hitListeners.remove(hl);
-        }
+        this.hitListeners.remove(hl);
     }
 
     @Override
@@ -32,6 +32,38 @@ public class Line {
         return new Point(this.start.getX(), this.start.getY());
     }
 
+    /**
+     * Getter for the x value of the start point.
+     * @return - x value of the start point.
+     */
+    public double startX() {
+        return this.start.getX();
+    }
+
+    /**
+     * Getter for the y value of the start point.
+     * @return - y value of the start point.
+     */
+    public double startY() {
+        return this.start.getY();
+    }
+
+    /**
+     * Getter for the x value of the end point.
+     * @return - x value of the end point.
+     */
+    public double endX() {
+        return this.end.getX();
+    }
+
+    /**
+     * Getter for the y value of the end point.
+     * @return - y value of the end point.
+     */
+    public double endY() {
+        return this.end.getY();
+    }
+
     /**
      * Function to calculate the incline of our line.
      * (meant for calculation purposes).
@@ -1,5 +1,6 @@
 package geometry;
-import java.util.Random;
+
+import util.RandomSource;
 
 /**
  * this class represent a point.
@@ -76,6 +77,16 @@ public class Point {
         this.y = y;
     }
 
+    /**
+     * Change both values of the point.
+     * @param x - new x value.
+     * @param y - new y value.
+     */
+    public void set(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
     /**
      * Generate a random point in the provided area.
      * @param minX - min value allowed for x.
@@ -85,7 +96,19 @@ public class Point {
      * @return - point instance between the min and max values of x and y.
      */
     public static Point randomPoint(int minX, int maxX, int minY, int maxY) {
-        Random rnd = new Random();
+        return randomPoint(minX, maxX, minY, maxY, new RandomSource());
+    }
+
+    /**
+     * Generate a random point in the provided area using the given random source.
+     * @param minX - min value allowed for x.
+     * @param maxX - max value allowed for x.
+     * @param minY - min value allowed for y.
+     * @param maxY - max value allowed for y.
+     * @param rnd - source of the random values.
+     * @return - point instance between the min and max values of x and y.
+     */
+    public static Point randomPoint(int minX, int maxX, int minY, int maxY, RandomSource rnd) {
         int x = rnd.nextInt((maxX - minX) + 1) + minX;
         int y = rnd.nextInt((maxY - minY) + 1) + minY;
         return new Point(x, y);
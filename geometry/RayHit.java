@@ -0,0 +1,92 @@
+package geometry;
+
+/**
+ * This class holds the result of casting a ray on a rectangle.
+ * It is mutable so one instance can be reused for many casts without allocating.
+ */
+public class RayHit {
+    /**
+     * The ray hit the left side of the rectangle.
+     */
+    public static final int LEFT = 0;
+    /**
+     * The ray hit the right side of the rectangle.
+     */
+    public static final int RIGHT = 1;
+    /**
+     * The ray hit the top side of the rectangle.
+     */
+    public static final int TOP = 2;
+    /**
+     * The ray hit the bottom side of the rectangle.
+     */
+    public static final int BOTTOM = 3;
+    /**
+     * A circle cast on the rectangle touched one of its corners.
+     */
+    public static final int CORNER = 4;
+
+    private double time;
+    private double x;
+    private double y;
+    private int side;
+
+    /**
+     * Set the result of a cast.
+     * @param time - fraction of the ray's length at which the rectangle was hit.
+     * @param x - x value of the hit point.
+     * @param y - y value of the hit point.
+     * @param side - side of the rectangle that was hit.
+     */
+    public void set(double time, double x, double y, int side) {
+        this.time = time;
+        this.x = x;
+        this.y = y;
+        this.side = side;
+    }
+
+    /**
+     * Getter for the time of the hit.
+     * @return - fraction of the ray's length at which the rectangle was hit, between 0 and 1.
+     */
+    public double getTime() {
+        return this.time;
+    }
+
+    /**
+     * Getter for the x value of the hit point.
+     * @return - x value of the hit point.
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Getter for the y value of the hit point.
+     * @return - y value of the hit point.
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Getter for the side that was hit.
+     * @return - one of LEFT, RIGHT, TOP, BOTTOM or CORNER.
+     */
+    public int getSide() {
+        return this.side;
+    }
+
+    /**
+     * Check if the hit side is the left or the right side of the rectangle.
+     * @return - true for a vertical side, otherwise false.
+     */
+    public boolean isVerticalSide() {
+        return this.side == LEFT || this.side == RIGHT;
+    }
+
+    @Override
+    public String toString() {
+        return "RayHit: time " + this.time + " at (" + this.x + ", " + this.y + ") side " + this.side;
+    }
+}
@@ -6,11 +6,30 @@ import java.util.List;
 
 /**
  * Class to represent a rectangle.
+ * The bounds, corners and sides are cached, so the rectangle should only be moved by its setUpperLeft functions
+ * and the returned corners shouldn't be changed.
  */
 public class Rectangle {
+    //Threshold for double calculation, same as the one used by lines.
+    private static final double THRESHOLD = 0.0001;
+
     private Point upperLeft;
     private double width;
     private double height;
+    //Bounds, updated whenever the rectangle moves.
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    //Corners and sides, created on first use and dropped whenever the rectangle moves.
+    private Point upperRight;
+    private Point bottomRight;
+    private Point bottomLeft;
+    private Line topLine;
+    private Line rightLine;
+    private Line bottomLine;
+    private Line leftLine;
+    private List<Line> sides;
 
     /**
      * Constructor to create new rectangle.
@@ -22,6 +41,7 @@ public class Rectangle {
         this.upperLeft = upperLeft;
         this.width = width;
         this.height = height;
+        updateBounds();
     }
 
     /**
@@ -53,28 +73,35 @@ public class Rectangle {
 
     /**
      * Getter for the top right point of the rectangle.
-     * @return - point variable of the top right point.
+     * @return - point variable of the top right point, shared between calls.
      */
     public Point getUpperRight() {
-
-        return new Point(this.upperLeft.getX() + this.width, this.getUpperLeft().getY());
+        if (this.upperRight == null) {
+            this.upperRight = new Point(this.maxX, this.minY);
+        }
+        return this.upperRight;
     }
 
     /**
      * Getter for the bottom right point of the rectangle.
-     * @return - point variable of the bottom right point.
+     * @return - point variable of the bottom right point, shared between calls.
      */
     public Point getBottomRight() {
-        return new Point(this.upperLeft.getX() + this.width, this.getUpperLeft().getY() + this.height);
+        if (this.bottomRight == null) {
+            this.bottomRight = new Point(this.maxX, this.maxY);
+        }
+        return this.bottomRight;
     }
 
     /**
      * Getter for the bottom left point of the rectangle.
-     * @return - point variable of the bottom left point.
+     * @return - point variable of the bottom left point, shared between calls.
      */
     public Point getBottomLeft() {
-
-        return new Point(this.upperLeft.getX(), this.getUpperLeft().getY() + this.height);
+        if (this.bottomLeft == null) {
+            this.bottomLeft = new Point(this.minX, this.maxY);
+        }
+        return this.bottomLeft;
     }
 
     /**
@@ -84,6 +111,84 @@ public class Rectangle {
     public void setUpperLeft(Point newUpperLeft) {
 
         this.upperLeft = newUpperLeft;
+        updateBounds();
+    }
+
+    /**
+     * Move the rectangle by changing its upper left point, without creating a new point.
+     * @param x - new x value of the upper left point.
+     * @param y - new y value of the upper left point.
+     */
+    public void setUpperLeft(double x, double y) {
+        this.upperLeft.set(x, y);
+        updateBounds();
+    }
+
+    /**
+     * Getter for the smallest x value of the rectangle.
+     * @return - x value of the left side.
+     */
+    public double getMinX() {
+        return this.minX;
+    }
+
+    /**
+     * Getter for the smallest y value of the rectangle.
+     * @return - y value of the top side.
+     */
+    public double getMinY() {
+        return this.minY;
+    }
+
+    /**
+     * Getter for the biggest x value of the rectangle.
+     * @return - x value of the right side.
+     */
+    public double getMaxX() {
+        return this.maxX;
+    }
+
+    /**
+     * Getter for the biggest y value of the rectangle.
+     * @return - y value of the bottom side.
+     */
+    public double getMaxY() {
+        return this.maxY;
+    }
+
+    /**
+     * Calculate the bounds again and drop the cached corners and sides, called whenever the rectangle moves.
+     */
+    private void updateBounds() {
+        this.minX = this.upperLeft.getX();
+        this.minY = this.upperLeft.getY();
+        this.maxX = this.minX + this.width;
+        this.maxY = this.minY + this.height;
+        this.upperRight = null;
+        this.bottomRight = null;
+        this.bottomLeft = null;
+        this.topLine = null;
+        this.rightLine = null;
+        this.bottomLine = null;
+        this.leftLine = null;
+        this.sides = null;
+    }
+
+    /**
+     * Check if a point is on one of the rectangle's sides, without creating the side's line.
+     * Gives the same result as the isOnLine function of the side's line.
+     * @param side - the side to check, one of the sides of the ray hit class.
+     * @param x - x value of the point.
+     * @param y - y value of the point.
+     * @return - true if the point is on the side, otherwise false.
+     */
+    public boolean isOnSide(int side, double x, double y) {
+        if (side == RayHit.TOP || side == RayHit.BOTTOM) {
+            double sideY = side == RayHit.TOP ? this.minY : this.maxY;
+            return Math.abs(y - sideY) <= THRESHOLD && x >= this.minX - THRESHOLD && x <= this.maxX + THRESHOLD;
+        }
+        double sideX = side == RayHit.LEFT ? this.minX : this.maxX;
+        return Math.abs(x - sideX) <= THRESHOLD && y >= this.minY - THRESHOLD && y <= this.maxY + THRESHOLD;
     }
 
     /**
@@ -91,7 +196,10 @@ public class Rectangle {
      * @return - line of the top of the rectangle.
      */
     public Line getTopLine() {
-        return new Line(this.upperLeft, getUpperRight());
+        if (this.topLine == null) {
+            this.topLine = new Line(this.upperLeft, getUpperRight());
+        }
+        return this.topLine;
     }
 
     /**
@@ -99,7 +207,10 @@ public class Rectangle {
      * @return - line of the right of the rectangle.
      */
     public Line getRightLine() {
-        return new Line(getUpperRight(), getBottomRight());
+        if (this.rightLine == null) {
+            this.rightLine = new Line(getUpperRight(), getBottomRight());
+        }
+        return this.rightLine;
     }
 
     /**
@@ -107,8 +218,10 @@ public class Rectangle {
      * @return - line of the bottom of the rectangle.
      */
     public Line getBottomLine() {
-
-        return new Line(getBottomLeft(), getBottomRight());
+        if (this.bottomLine == null) {
+            this.bottomLine = new Line(getBottomLeft(), getBottomRight());
+        }
+        return this.bottomLine;
     }
 
     /**
@@ -116,8 +229,10 @@ public class Rectangle {
      * @return - line of the left of the rectangle.
      */
     public Line getLeftLine() {
-
-        return new Line(this.upperLeft, getBottomLeft());
+        if (this.leftLine == null) {
+            this.leftLine = new Line(this.upperLeft, getBottomLeft());
+        }
+        return this.leftLine;
     }
 
     /**
@@ -129,9 +244,11 @@ public class Rectangle {
      */
     public List<Point> intersectionPoints(Line line) {
         List<Point> intersections = new ArrayList<>();
-        List<Line> l = Arrays.asList(getLeftLine(), getRightLine(), getTopLine(), getBottomLine());
+        if (this.sides == null) {
+            this.sides = Arrays.asList(getLeftLine(), getRightLine(), getTopLine(), getBottomLine());
+        }
 
-        for (Line side : l) {
+        for (Line side : this.sides) {
             Point intersection = side.intersectionWith(line);
             if (intersection != null) {
                 intersections.add(intersection);
@@ -140,6 +257,190 @@ public class Rectangle {
         return intersections;
     }
 
+    /**
+     * Cast a ray from start to end on this rectangle without allocating.
+     * The ray hits a side when it crosses the side's line within the threshold of both the side and the ray,
+     * the same check the intersection points make. The crossing closest to the start of the ray is the hit, so
+     * if the ray starts inside the rectangle the point where it leaves is used.
+     * @param startX - x value of the start of the ray.
+     * @param startY - y value of the start of the ray.
+     * @param endX - x value of the end of the ray.
+     * @param endY - y value of the end of the ray.
+     * @param hit - result to fill if the rectangle is hit.
+     * @return - true if the rectangle is hit between the start and the end of the ray, otherwise false.
+     */
+    public boolean castRay(double startX, double startY, double endX, double endY, RayHit hit) {
+        return castRay(startX, startY, endX, endY, 0, hit);
+    }
+
+    /**
+     * Cast a ray on this rectangle grown by the given distance on every side, with square corners.
+     * Casting the center of a circle on it finds when the circle touches a side, see castCircleOnBox for corners.
+     * @param startX - x value of the start of the ray.
+     * @param startY - y value of the start of the ray.
+     * @param endX - x value of the end of the ray.
+     * @param endY - y value of the end of the ray.
+     * @param grow - distance to grow the rectangle by on every side.
+     * @param hit - result to fill if the grown rectangle is hit.
+     * @return - true if the grown rectangle is hit between the start and the end of the ray, otherwise false.
+     */
+    public boolean castRay(double startX, double startY, double endX, double endY, double grow, RayHit hit) {
+        return castRayOnBox(this.minX - grow, this.minY - grow, this.maxX + grow, this.maxY + grow,
+                startX, startY, endX, endY, hit);
+    }
+
+    /**
+     * Cast a ray on the box with the given bounds, same as casting it on a rectangle with these bounds.
+     * Lets objects made of many boxes, like a grid of bricks, cast on each box without creating rectangles.
+     * The time of a crossing only depends on the line of the side, so boxes sharing a side or a corner are hit
+     * at exactly the same time, and the caller can break the tie.
+     * @param minX - x value of the left side of the box.
+     * @param minY - y value of the top of the box.
+     * @param maxX - x value of the right side of the box.
+     * @param maxY - y value of the bottom of the box.
+     * @param startX - x value of the start of the ray.
+     * @param startY - y value of the start of the ray.
+     * @param endX - x value of the end of the ray.
+     * @param endY - y value of the end of the ray.
+     * @param hit - result to fill if the box is hit.
+     * @return - true if the box is hit between the start and the end of the ray, otherwise false.
+     */
+    public static boolean castRayOnBox(double minX, double minY, double maxX, double maxY,
+                                       double startX, double startY, double endX, double endY, RayHit hit) {
+        double dx = endX - startX;
+        double dy = endY - startY;
+        if (dx == 0 && dy == 0) {
+            return false;
+        }
+        //A crossing must be within the threshold of the ray's bounds on both axes, as a time on the ray.
+        double tolerance = Math.min(dx == 0 ? Double.POSITIVE_INFINITY : THRESHOLD / Math.abs(dx),
+                dy == 0 ? Double.POSITIVE_INFINITY : THRESHOLD / Math.abs(dy));
+        double time = Double.NaN;
+        int side = -1;
+        //Sides are checked left, right, top, bottom and a later side only wins if it is strictly closer.
+        if (dx != 0) {
+            double t = (minX - startX) / dx;
+            if (crossesSide(startY + t * dy, minY, maxY, t, tolerance)) {
+                time = t;
+                side = RayHit.LEFT;
+            }
+            t = (maxX - startX) / dx;
+            if (crossesSide(startY + t * dy, minY, maxY, t, tolerance) && closer(t, time)) {
+                time = t;
+                side = RayHit.RIGHT;
+            }
+        }
+        if (dy != 0) {
+            double t = (minY - startY) / dy;
+            if (crossesSide(startX + t * dx, minX, maxX, t, tolerance) && closer(t, time)) {
+                time = t;
+                side = RayHit.TOP;
+            }
+            t = (maxY - startY) / dy;
+            if (crossesSide(startX + t * dx, minX, maxX, t, tolerance) && closer(t, time)) {
+                time = t;
+                side = RayHit.BOTTOM;
+            }
+        }
+        if (side < 0) {
+            return false;
+        }
+        time = Math.max(0, Math.min(1, time));
+
+        //Put the hit point exactly on the side that was hit.
+        double x = startX + time * dx;
+        double y = startY + time * dy;
+        if (side == RayHit.LEFT) {
+            x = minX;
+        } else if (side == RayHit.RIGHT) {
+            x = maxX;
+        } else if (side == RayHit.TOP) {
+            y = minY;
+        } else {
+            y = maxY;
+        }
+        hit.set(time, x, y, side);
+        return true;
+    }
+
+    /**
+     * Cast a circle moving from start to end on the box with the given bounds.
+     * The center is cast on the box grown by the radius with rounded corners, the exact shape of the places the
+     * circle touches the box from. A center that reaches the grown box near a corner, out of the box on both axes,
+     * touches the box only once it is within the radius of the corner, so a circle passing close to a corner may
+     * miss it. A circle that already overlaps the box is handled like a ray on the grown box.
+     * @param minX - x value of the left side of the box.
+     * @param minY - y value of the top of the box.
+     * @param maxX - x value of the right side of the box.
+     * @param maxY - y value of the bottom of the box.
+     * @param radius - radius of the circle.
+     * @param startX - x value of the center at the start of the movement.
+     * @param startY - y value of the center at the start of the movement.
+     * @param endX - x value of the center at the end of the movement.
+     * @param endY - y value of the center at the end of the movement.
+     * @param hit - result to fill with the time and the touched point of the box, CORNER for a corner.
+     * @return - true if the circle touches the box between the start and the end, otherwise false.
+     */
+    public static boolean castCircleOnBox(double minX, double minY, double maxX, double maxY, double radius,
+                                          double startX, double startY, double endX, double endY, RayHit hit) {
+        boolean inside = startX > minX - radius && startX < maxX + radius
+                && startY > minY - radius && startY < maxY + radius;
+        boolean found = castRayOnBox(minX - radius, minY - radius, maxX + radius, maxY + radius,
+                startX, startY, endX, endY, hit);
+        if (!found && !inside) {
+            return false;
+        }
+        //Where the center reaches the grown box, or where it starts if it is already in it.
+        double x = inside ? startX : hit.getX();
+        double y = inside ? startY : hit.getY();
+        double cornerX = Math.max(minX, Math.min(maxX, x));
+        double cornerY = Math.max(minY, Math.min(maxY, y));
+        if (Math.abs(x - cornerX) > THRESHOLD && Math.abs(y - cornerY) > THRESHOLD) {
+            double fromX = startX - cornerX;
+            double fromY = startY - cornerY;
+            double outside = fromX * fromX + fromY * fromY - radius * radius;
+            if (outside > 0) {
+                //Solve |start + t * (end - start) - corner| = radius for the first t.
+                double dx = endX - startX;
+                double dy = endY - startY;
+                double a = dx * dx + dy * dy;
+                double b = fromX * dx + fromY * dy;
+                double discriminant = b * b - a * outside;
+                if (b >= 0 || discriminant < 0) {
+                    return false;
+                }
+                double time = (-b - Math.sqrt(discriminant)) / a;
+                if (time > 1) {
+                    return false;
+                }
+                hit.set(time, cornerX, cornerY, RayHit.CORNER);
+                return true;
+            }
+        }
+        if (!found) {
+            return false;
+        }
+        //Move the hit point from the grown box onto the box itself.
+        hit.set(hit.getTime(), Math.max(minX, Math.min(maxX, hit.getX())),
+                Math.max(minY, Math.min(maxY, hit.getY())), hit.getSide());
+        return true;
+    }
+
+    /**
+     * Check if the ray crosses the line of a side at the given time within the side and the ray.
+     */
+    private static boolean crossesSide(double along, double sideMin, double sideMax, double time, double tolerance) {
+        return along >= sideMin - THRESHOLD && along <= sideMax + THRESHOLD
+                && time >= -tolerance && time <= 1 + tolerance;
+    }
+
+    /**
+     * Check if a crossing is strictly closer to the start of the ray than the closest one so far, if any.
+     */
+    private static boolean closer(double time, double closest) {
+        return Double.isNaN(closest) || Math.abs(time) < Math.abs(closest);
+    }
+
     /**
      * Returns a string representation of the rectangle.
      * @return a string describing the rectangle
@@ -2,7 +2,7 @@ package graphics;
 
 import collision.HitListener;
 import game.Block;
-import game.Game;
+import game.Simulation;
 import geometry.Ball;
 import util.Counter;
 
@@ -10,7 +10,7 @@ import util.Counter;
  * This class removing balls from the game.
  */
 public class BallRemover implements HitListener {
-    private Game game;
+    private Simulation game;
     private Counter remainingBalls;
 
     /**
@@ -18,7 +18,7 @@ public class BallRemover implements HitListener {
      * @param game - game reference the ball is in.
      * @param remainingBalls - number of remaining balls in the game.
      */
-    public BallRemover(Game game, Counter remainingBalls) {
+    public BallRemover(Simulation game, Counter remainingBalls) {
         this.game = game;
         this.remainingBalls = remainingBalls;
     }
@@ -4,13 +4,13 @@ import collision.HitListener;
 import game.Block;
 import geometry.Ball;
 import util.Counter;
-import game.Game;
+import game.Simulation;
 
 /**
  * This class removing blocks from the game.
  */
 public class BlockRemover implements HitListener {
-    private Game game;
+    private Simulation game;
     private Counter remainingBlocks;
 
     /**
@@ -18,7 +18,7 @@ public class BlockRemover implements HitListener {
      * @param game - game reference the block is in.
      * @param remainingBlocks - number of remaining blocks in the game.
      */
-    public BlockRemover(Game game, Counter remainingBlocks) {
+    public BlockRemover(Simulation game, Counter remainingBlocks) {
         this.game = game;
         this.remainingBlocks = remainingBlocks;
     }
@@ -0,0 +1,57 @@
+package graphics;
+
+import biuoop.DrawSurface;
+import util.FrameProfiler;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * This class draws the frame profiler's measurements over the game when it's shown.
+ */
+public class ProfilerOverlay implements Sprite {
+    private FrameProfiler profiler;
+    private boolean visible;
+
+    /**
+     * Constructor for a hidden overlay.
+     * @param profiler - the profiler to show.
+     */
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        this.visible = false;
+    }
+
+    /**
+     * Check if the overlay is shown.
+     * @return - true if shown.
+     */
+    public boolean isVisible() {
+        return this.visible;
+    }
+
+    /**
+     * Show the overlay if hidden, or hide it if shown.
+     */
+    public void toggle() {
+        this.visible = !this.visible;
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        if (!this.visible) {
+            return;
+        }
+        List<String> lines = this.profiler.report();
+        d.setColor(Color.DARK_GRAY);
+        d.fillRectangle(20, 40, 420, 20 + 18 * lines.size());
+        d.setColor(Color.WHITE);
+        for (int i = 0; i < lines.size(); i++) {
+            d.drawText(30, 60 + 18 * i, lines.get(i), 14);
+        }
+    }
+
+    @Override
+    public void timePassed() {
+    }
+}
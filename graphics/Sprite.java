@@ -11,6 +11,17 @@ public interface Sprite {
      */
     void drawOn(DrawSurface d);
 
+    /**
+     * Notify the object it needs to be drawn part of the way between its last two states.
+     * Moving objects draw themselves between where they were before the last time passed and where they are now,
+     * objects that don't move just draw themselves.
+     * @param d - surface to be used for drawing on.
+     * @param alpha - part of the way from the previous state to the current one, between 0 and 1.
+     */
+    default void drawOn(DrawSurface d, double alpha) {
+        drawOn(d);
+    }
+
     /**
      * Notify the object that time has passed and updating info is needed.
      */
@@ -1,22 +1,31 @@
 package graphics;
 
 import biuoop.DrawSurface;
+import util.SlotMap;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * This class contain a list of objects which use sprite interface.
+ * Sprites added or removed while the collection is notified or drawn are only added or removed once it ends,
+ * so every sprite that was in the collection when a tick started gets that tick, in the order they were added.
  */
 public class SpriteCollection {
-    private List<Sprite> spriteList;
+    private SlotMap<Sprite> spriteList;
+    private List<Sprite> pendingAdds;
+    private List<Sprite> pendingRemovals;
+    private boolean iterating;
 
     /**
-     * Default constructor for the class, will initialize a new array list.
+     * Default constructor for the class, will initialize a new slot map.
      */
     public SpriteCollection() {
 
-        this.spriteList = new ArrayList<>();
+        this.spriteList = new SlotMap<>();
+        this.pendingAdds = new ArrayList<>();
+        this.pendingRemovals = new ArrayList<>();
+        this.iterating = false;
     }
 
     /**
@@ -24,7 +33,12 @@ public class SpriteCollection {
      * @param s - a new sprite to be added.
      */
     public void addSprite(Sprite s) {
-        if (s != null) {
+        if (s == null) {
+            return;
+        }
+        if (this.iterating) {
+            this.pendingAdds.add(s);
+        } else {
             spriteList.add(s);
         }
     }
@@ -34,18 +48,41 @@ public class SpriteCollection {
      * @param s - sprite object to be removed.
      */
     public void removeSprite(Sprite s) {
-        if (s != null) {
+        if (s == null) {
+            return;
+        }
+        if (this.iterating) {
+            this.pendingRemovals.add(s);
+        } else {
             spriteList.remove(s);
+            spriteList.compact();
         }
     }
 
+    /**
+     * Get the amount of sprites in the collection.
+     * @return - number of sprites.
+     */
+    public int size() {
+        return spriteList.size();
+    }
+
     /**
      * Notify every sprite that time passed.
      */
     public void notifyAllTimePassed() {
-        for (int i = 0; i < spriteList.size(); i++) {
-            spriteList.get(i).timePassed();
+        this.iterating = true;
+        try {
+            for (int i = 0; i < spriteList.slotCount(); i++) {
+                Sprite sprite = spriteList.slot(i);
+                if (sprite != null) {
+                    sprite.timePassed();
+                }
+            }
+        } finally {
+            this.iterating = false;
         }
+        applyPending();
     }
 
     /**
@@ -53,8 +90,59 @@ public class SpriteCollection {
      * @param d - the draw surface of the gui.
      */
     public void drawAllOn(DrawSurface d) {
-        for (Sprite sprite: spriteList) {
-            sprite.drawOn(d);
+        this.iterating = true;
+        try {
+            for (int i = 0; i < spriteList.slotCount(); i++) {
+                Sprite sprite = spriteList.slot(i);
+                if (sprite != null) {
+                    sprite.drawOn(d);
+                }
+            }
+        } finally {
+            this.iterating = false;
+        }
+        applyPending();
+    }
+
+    /**
+     * Call the draw animation for each sprite, drawing moving sprites between their last two states.
+     * @param d - the draw surface of the gui.
+     * @param alpha - part of the way from the previous state to the current one, between 0 and 1.
+     */
+    public void drawAllOn(DrawSurface d, double alpha) {
+        this.iterating = true;
+        try {
+            for (int i = 0; i < spriteList.slotCount(); i++) {
+                Sprite sprite = spriteList.slot(i);
+                if (sprite != null) {
+                    sprite.drawOn(d, alpha);
+                }
+            }
+        } finally {
+            this.iterating = false;
+        }
+        applyPending();
+    }
+
+    /**
+     * Apply the adds and removals made while iterating.
+     */
+    private void applyPending() {
+        if (this.pendingAdds.isEmpty() && this.pendingRemovals.isEmpty()) {
+            return;
+        }
+        //A sprite added and removed in the same tick is never added.
+        for (int i = 0; i < this.pendingAdds.size(); i++) {
+            Sprite s = this.pendingAdds.get(i);
+            if (!this.pendingRemovals.remove(s)) {
+                spriteList.add(s);
+            }
+        }
+        for (int i = 0; i < this.pendingRemovals.size(); i++) {
+            spriteList.remove(this.pendingRemovals.get(i));
         }
+        this.pendingAdds.clear();
+        this.pendingRemovals.clear();
+        spriteList.compact();
     }
 }
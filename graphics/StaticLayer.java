@@ -0,0 +1,219 @@
+package graphics;
+
+import biuoop.DrawSurface;
+import game.Block;
+import game.BrickGrid;
+import geometry.Rectangle;
+import util.SlotMap;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a retained layer of blocks that don't move, like the background, the bounds and the bricks.
+ * The blocks are drawn once into an offscreen image, and each frame only the image is drawn.
+ * When a block is removed only the area it covered is drawn again, with the blocks under it.
+ * Brick grids are drawn over the blocks, and when one of their bricks is cleared only its cell is drawn again.
+ */
+public class StaticLayer implements Sprite {
+    private final int width;
+    private final int height;
+    private final SlotMap<Block> blocks;
+    private final List<BrickGrid> grids;
+    private final List<java.awt.Rectangle> dirtyAreas;
+    private BufferedImage image;
+    private boolean fullRedraw;
+
+    /**
+     * Constructor for an empty layer.
+     * @param width - width of the layer's image.
+     * @param height - height of the layer's image.
+     */
+    public StaticLayer(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Layer sizes must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.blocks = new SlotMap<>();
+        this.grids = new ArrayList<>();
+        this.dirtyAreas = new ArrayList<>();
+        this.image = null;
+        this.fullRedraw = true;
+    }
+
+    /**
+     * Add a block on top of the blocks already in the layer.
+     * @param block - block to be added.
+     */
+    public void addBlock(Block block) {
+        if (block == null) {
+            return;
+        }
+        this.blocks.add(block);
+        if (!this.fullRedraw) {
+            this.dirtyAreas.add(area(block));
+        }
+    }
+
+    /**
+     * Remove a block from the layer, the area it covered will be drawn again on the next frame.
+     * @param block - block to be removed.
+     */
+    public void removeBlock(Block block) {
+        if (block != null && this.blocks.remove(block)) {
+            this.blocks.compact();
+            if (!this.fullRedraw) {
+                this.dirtyAreas.add(area(block));
+            }
+        }
+    }
+
+    /**
+     * Add a brick grid on top of the blocks of the layer.
+     * @param grid - grid to be added.
+     */
+    public void addGrid(BrickGrid grid) {
+        if (grid == null || this.grids.contains(grid)) {
+            return;
+        }
+        this.grids.add(grid);
+        if (!this.fullRedraw) {
+            this.dirtyAreas.add(area(grid.getCollisionRectangle()));
+        }
+    }
+
+    /**
+     * Remove a brick grid from the layer, the area it covered will be drawn again on the next frame.
+     * @param grid - grid to be removed.
+     */
+    public void removeGrid(BrickGrid grid) {
+        if (this.grids.remove(grid) && !this.fullRedraw) {
+            this.dirtyAreas.add(area(grid.getCollisionRectangle()));
+        }
+    }
+
+    /**
+     * Draw the area of a rectangle again on the next frame, after something drawn there changed, like a brick
+     * of a grid that was cleared.
+     * @param rect - the area that changed.
+     */
+    public void redrawArea(Rectangle rect) {
+        if (rect != null && !this.fullRedraw) {
+            this.dirtyAreas.add(area(rect));
+        }
+    }
+
+    /**
+     * Get the amount of blocks in the layer.
+     * @return - number of blocks.
+     */
+    public int size() {
+        return this.blocks.size();
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        if (this.image == null) {
+            //Created on the first frame, so a game that is never drawn doesn't pay for it.
+            this.image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_ARGB);
+        }
+        if (this.fullRedraw) {
+            redraw(new java.awt.Rectangle(0, 0, this.width, this.height));
+            this.fullRedraw = false;
+        } else {
+            for (java.awt.Rectangle area : this.dirtyAreas) {
+                redraw(area);
+            }
+            this.dirtyAreas.clear();
+        }
+        d.drawImage(0, 0, this.image);
+    }
+
+    @Override
+    public void timePassed() {
+    }
+
+    /**
+     * Clear an area of the image and draw again every block that touches it.
+     */
+    private void redraw(java.awt.Rectangle area) {
+        Graphics2D g = this.image.createGraphics();
+        try {
+            g.setClip(area);
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(area.x, area.y, area.width, area.height);
+            g.setComposite(AlphaComposite.SrcOver);
+            for (int i = 0; i < this.blocks.slotCount(); i++) {
+                Block block = this.blocks.slot(i);
+                if (block != null && area(block).intersects(area)) {
+                    draw(g, block);
+                }
+            }
+            for (int i = 0; i < this.grids.size(); i++) {
+                drawBricks(g, this.grids.get(i), area);
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draw a block the same way the block draws itself on a draw surface.
+     */
+    private static void draw(Graphics2D g, Block block) {
+        Rectangle rect = block.getCollisionRectangle();
+        draw(g, rect.getUpperLeft().getX(), rect.getUpperLeft().getY(), rect.getWidth(), rect.getHeight(),
+                block.getColor());
+    }
+
+    /**
+     * Draw the bricks of a grid whose cells touch an area, the same way the grid draws them on a draw surface.
+     */
+    private static void drawBricks(Graphics2D g, BrickGrid grid, java.awt.Rectangle area) {
+        double width = grid.getCellWidth();
+        double height = grid.getCellHeight();
+        //The outline of a brick is a pixel wider, so the brick left of or above the area may touch it.
+        int lastRow = grid.rowOf(area.getMaxY());
+        int lastCol = grid.columnOf(area.getMaxX());
+        for (int row = grid.rowOf(area.getMinY() - 1); row <= lastRow; row++) {
+            for (int col = grid.columnOf(area.getMinX() - 1); col <= lastCol; col++) {
+                Color color = grid.brickColor(row, col);
+                if (color == null) {
+                    continue;
+                }
+                double x = grid.getOriginX() + col * width;
+                double y = grid.getOriginY() + row * height;
+                if (area(x, y, width, height).intersects(area)) {
+                    draw(g, x, y, width, height, color);
+                }
+            }
+        }
+    }
+
+    private static void draw(Graphics2D g, double x, double y, double width, double height, Color color) {
+        g.setColor(color);
+        g.fillRect((int) x, (int) y, (int) width, (int) height);
+        g.setColor(Color.black);
+        g.drawRect((int) x, (int) y, (int) width, (int) height);
+    }
+
+    /**
+     * The pixels a block covers, the outline is one pixel wider and higher than the fill.
+     */
+    private static java.awt.Rectangle area(Block block) {
+        return area(block.getCollisionRectangle());
+    }
+
+    private static java.awt.Rectangle area(Rectangle rect) {
+        return area(rect.getUpperLeft().getX(), rect.getUpperLeft().getY(), rect.getWidth(), rect.getHeight());
+    }
+
+    private static java.awt.Rectangle area(double x, double y, double width, double height) {
+        return new java.awt.Rectangle((int) x, (int) y, (int) width + 1, (int) height + 1);
+    }
+}
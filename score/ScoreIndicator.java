@@ -1,7 +1,7 @@
 package score;
 
 import biuoop.DrawSurface;
-import game.Game;
+import game.Simulation;
 import graphics.Sprite;
 import util.Counter;
 
@@ -33,7 +33,7 @@ public class ScoreIndicator implements Sprite {
      * Add the score indicator to the game as a sprite.
      * @param g - instance of a game.
      */
-    public void addToGame(Game g) {
+    public void addToGame(Simulation g) {
         g.addSprite(this);
     }
 
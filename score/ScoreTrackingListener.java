@@ -1,15 +1,17 @@
 package score;
 
-import collision.HitListener;
+import collision.HitBatchListener;
 import game.Block;
 import geometry.Ball;
 import util.Counter;
 
 /**
  * This class to keep track of the user's score.
+ * The points of the hits in a batch are summed and added to the score once the batch ends.
  */
-public class ScoreTrackingListener implements HitListener {
+public class ScoreTrackingListener implements HitBatchListener {
     private Counter currentScore;
+    private int pendingPoints;
 
     /**
      * Constructor for the listener.
@@ -31,7 +33,7 @@ public class ScoreTrackingListener implements HitListener {
 
     /**
      * Handles a hit event on a block.
-     * Increases the current score when the block is hit,
+     * Adds points for the block when it is hit,
      * as long as the block is not marked for removal.
      *
      * @param beingHit the block that was hit
@@ -40,7 +42,18 @@ public class ScoreTrackingListener implements HitListener {
     @Override
     public void hitEvent(Block beingHit, Ball hitter) {
         if (!beingHit.isBlockRemoved()) {
-            this.currentScore.increase(5);
+            this.pendingPoints += 5;
+        }
+    }
+
+    /**
+     * Add the points of the batch's hits to the score.
+     */
+    @Override
+    public void hitBatchEnded() {
+        if (this.pendingPoints != 0) {
+            this.currentScore.increase(this.pendingPoints);
+            this.pendingPoints = 0;
         }
     }
 
@@ -0,0 +1,251 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * This class is a uniform grid of boxes, each one identified by a small non negative id.
+ * Every box is linked into each cell it overlaps, so finding the boxes that overlap a region only looks at the
+ * boxes in the region's cells. Boxes outside the grid area are kept in the border cells.
+ * The links of the cells are kept in arrays that are reused, so moving and querying boxes doesn't allocate once
+ * the arrays are big enough. The class isn't thread safe.
+ */
+public class BoxGrid {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    //First link of each cell, -1 for an empty cell.
+    private final int[] cellHeads;
+
+    //Every link puts an id in a cell, and is in the list of its cell and in the list of its id.
+    private int[] linkIds;
+    private int[] linkCells;
+    private int[] linkPrevious;
+    private int[] linkNext;
+    private int[] linkNextOfId;
+    private int freeLinks;
+    private int linkCount;
+
+    //Box and first link of each id, -1 for ids that aren't in the grid.
+    private int[] idHeads;
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+
+    private int[] marks;
+    private int round;
+    private int[] results;
+    private int resultCount;
+
+    /**
+     * Constructor for an empty grid.
+     * @param width - width of the area covered by the grid.
+     * @param height - height of the area covered by the grid.
+     * @param cellSize - width and height of every cell.
+     */
+    public BoxGrid(double width, double height, double cellSize) {
+        if (width <= 0 || height <= 0 || cellSize <= 0) {
+            throw new IllegalArgumentException("Grid sizes must be positive");
+        }
+        this.cellSize = cellSize;
+        this.columns = (int) Math.ceil(width / cellSize);
+        this.rows = (int) Math.ceil(height / cellSize);
+        this.cellHeads = new int[this.columns * this.rows];
+        Arrays.fill(this.cellHeads, -1);
+        this.linkIds = new int[INITIAL_CAPACITY];
+        this.linkCells = new int[INITIAL_CAPACITY];
+        this.linkPrevious = new int[INITIAL_CAPACITY];
+        this.linkNext = new int[INITIAL_CAPACITY];
+        this.linkNextOfId = new int[INITIAL_CAPACITY];
+        this.freeLinks = -1;
+        this.idHeads = new int[0];
+        this.minX = new double[0];
+        this.minY = new double[0];
+        this.maxX = new double[0];
+        this.maxY = new double[0];
+        this.marks = new int[0];
+        this.results = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Put the box of an id in the grid, replacing the box it had.
+     * @param id - the id, not negative.
+     * @param boxMinX - x value of the left side of the box.
+     * @param boxMinY - y value of the top of the box.
+     * @param boxMaxX - x value of the right side of the box.
+     * @param boxMaxY - y value of the bottom of the box.
+     */
+    public void put(int id, double boxMinX, double boxMinY, double boxMaxX, double boxMaxY) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id for box grid");
+        }
+        if (id >= this.idHeads.length) {
+            growIds(id);
+        }
+        if (this.idHeads[id] >= 0) {
+            boolean sameCells = columnOf(boxMinX) == columnOf(this.minX[id])
+                    && columnOf(boxMaxX) == columnOf(this.maxX[id])
+                    && rowOf(boxMinY) == rowOf(this.minY[id]) && rowOf(boxMaxY) == rowOf(this.maxY[id]);
+            if (!sameCells) {
+                unlink(id);
+            }
+        }
+        this.minX[id] = boxMinX;
+        this.minY[id] = boxMinY;
+        this.maxX[id] = boxMaxX;
+        this.maxY[id] = boxMaxY;
+        if (this.idHeads[id] >= 0) {
+            return;
+        }
+        for (int row = rowOf(boxMinY); row <= rowOf(boxMaxY); row++) {
+            for (int col = columnOf(boxMinX); col <= columnOf(boxMaxX); col++) {
+                link(id, row * this.columns + col);
+            }
+        }
+    }
+
+    /**
+     * Remove the box of an id from the grid.
+     * @param id - the id.
+     * @return - true if the id had a box in the grid, otherwise false.
+     */
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        unlink(id);
+        return true;
+    }
+
+    /**
+     * Check if an id has a box in the grid.
+     * @param id - the id.
+     * @return - true if the id has a box, otherwise false.
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < this.idHeads.length && this.idHeads[id] >= 0;
+    }
+
+    /**
+     * Find the ids whose boxes overlap a region, each one once. The ids are read with result.
+     * @param regionMinX - x value of the left side of the region.
+     * @param regionMinY - y value of the top of the region.
+     * @param regionMaxX - x value of the right side of the region.
+     * @param regionMaxY - y value of the bottom of the region.
+     * @return - number of ids found, valid until the next query.
+     */
+    public int query(double regionMinX, double regionMinY, double regionMaxX, double regionMaxY) {
+        this.resultCount = 0;
+        this.round++;
+        if (this.round == 0) {
+            Arrays.fill(this.marks, 0);
+            this.round = 1;
+        }
+        for (int row = rowOf(regionMinY); row <= rowOf(regionMaxY); row++) {
+            for (int col = columnOf(regionMinX); col <= columnOf(regionMaxX); col++) {
+                for (int link = this.cellHeads[row * this.columns + col]; link >= 0; link = this.linkNext[link]) {
+                    int id = this.linkIds[link];
+                    if (this.marks[id] == this.round) {
+                        continue;
+                    }
+                    this.marks[id] = this.round;
+                    if (this.minX[id] <= regionMaxX && this.maxX[id] >= regionMinX
+                            && this.minY[id] <= regionMaxY && this.maxY[id] >= regionMinY) {
+                        if (this.resultCount == this.results.length) {
+                            this.results = Arrays.copyOf(this.results, this.results.length * 2);
+                        }
+                        this.results[this.resultCount++] = id;
+                    }
+                }
+            }
+        }
+        return this.resultCount;
+    }
+
+    /**
+     * Get an id found by the last query.
+     * @param i - index of the result, below the amount the query returned.
+     * @return - the id.
+     */
+    public int result(int i) {
+        if (i < 0 || i >= this.resultCount) {
+            throw new IllegalArgumentException("No result " + i);
+        }
+        return this.results[i];
+    }
+
+    private int columnOf(double x) {
+        return Math.max(0, Math.min(this.columns - 1, (int) Math.floor(x / this.cellSize)));
+    }
+
+    private int rowOf(double y) {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor(y / this.cellSize)));
+    }
+
+    private void link(int id, int cell) {
+        int link;
+        if (this.freeLinks >= 0) {
+            link = this.freeLinks;
+            this.freeLinks = this.linkNext[link];
+        } else {
+            if (this.linkCount == this.linkIds.length) {
+                growLinks();
+            }
+            link = this.linkCount++;
+        }
+        this.linkIds[link] = id;
+        this.linkCells[link] = cell;
+        this.linkPrevious[link] = -1;
+        this.linkNext[link] = this.cellHeads[cell];
+        if (this.cellHeads[cell] >= 0) {
+            this.linkPrevious[this.cellHeads[cell]] = link;
+        }
+        this.cellHeads[cell] = link;
+        this.linkNextOfId[link] = this.idHeads[id];
+        this.idHeads[id] = link;
+    }
+
+    private void unlink(int id) {
+        int link = this.idHeads[id];
+        while (link >= 0) {
+            int nextOfId = this.linkNextOfId[link];
+            int previous = this.linkPrevious[link];
+            int next = this.linkNext[link];
+            if (previous >= 0) {
+                this.linkNext[previous] = next;
+            } else {
+                this.cellHeads[this.linkCells[link]] = next;
+            }
+            if (next >= 0) {
+                this.linkPrevious[next] = previous;
+            }
+            this.linkNext[link] = this.freeLinks;
+            this.freeLinks = link;
+            link = nextOfId;
+        }
+        this.idHeads[id] = -1;
+    }
+
+    private void growIds(int id) {
+        int capacity = Math.max(id + 1, Math.max(INITIAL_CAPACITY, this.idHeads.length * 2));
+        int old = this.idHeads.length;
+        this.idHeads = Arrays.copyOf(this.idHeads, capacity);
+        Arrays.fill(this.idHeads, old, capacity, -1);
+        this.minX = Arrays.copyOf(this.minX, capacity);
+        this.minY = Arrays.copyOf(this.minY, capacity);
+        this.maxX = Arrays.copyOf(this.maxX, capacity);
+        this.maxY = Arrays.copyOf(this.maxY, capacity);
+        this.marks = Arrays.copyOf(this.marks, capacity);
+    }
+
+    private void growLinks() {
+        int capacity = this.linkIds.length * 2;
+        this.linkIds = Arrays.copyOf(this.linkIds, capacity);
+        this.linkCells = Arrays.copyOf(this.linkCells, capacity);
+        this.linkPrevious = Arrays.copyOf(this.linkPrevious, capacity);
+        this.linkNext = Arrays.copyOf(this.linkNext, capacity);
+        this.linkNextOfId = Arrays.copyOf(this.linkNextOfId, capacity);
+    }
+}
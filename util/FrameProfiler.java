@@ -0,0 +1,189 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class measures where the time of each frame goes.
+ * Every phase of the frame records its duration in nanoseconds in a histogram, and each tick records the
+ * amount of collision tests and the bytes allocated by the game thread.
+ * All measurements are meant to be taken on the game thread.
+ */
+public class FrameProfiler {
+    /**
+     * Drawing the sprites.
+     */
+    public static final int DRAW = 0;
+    /**
+     * Showing the drawn frame.
+     */
+    public static final int SHOW = 1;
+    /**
+     * Advancing the game by one tick.
+     */
+    public static final int TICK = 2;
+    /**
+     * One collision query of the game environment.
+     */
+    public static final int COLLISION = 3;
+    /**
+     * One call of a hit listener.
+     */
+    public static final int LISTENERS = 4;
+
+    private static final String[] PHASE_NAMES = {"draw", "show", "tick", "collision", "listeners"};
+
+    private final Histogram[] phases;
+    private final Histogram collisionTests;
+    private final Histogram allocatedBytes;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private boolean enabled;
+    private long tickCollisionTests;
+    private long tickStartBytes;
+
+    /**
+     * Default constructor for an enabled profiler.
+     */
+    public FrameProfiler() {
+        this.phases = new Histogram[PHASE_NAMES.length];
+        for (int i = 0; i < this.phases.length; i++) {
+            this.phases[i] = new Histogram();
+        }
+        this.collisionTests = new Histogram();
+        this.allocatedBytes = new Histogram();
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            this.allocationBean = (com.sun.management.ThreadMXBean) bean;
+        } else {
+            this.allocationBean = null;
+        }
+        this.enabled = true;
+    }
+
+    /**
+     * Check if the profiler records measurements.
+     * @return - true if enabled.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Turn the recording of measurements on or off.
+     * @param enabled - true to record measurements.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start measuring a phase.
+     * @return - the start time to give to end, 0 when disabled.
+     */
+    public long start() {
+        return this.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * End measuring a phase and record its duration.
+     * @param phase - one of the phase constants.
+     * @param startTime - the value returned by start.
+     */
+    public void end(int phase, long startTime) {
+        if (this.enabled) {
+            this.phases[phase].record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Count collision tests done during the current tick.
+     * @param tests - amount of collidables tested.
+     */
+    public void countCollisionTests(int tests) {
+        this.tickCollisionTests += tests;
+    }
+
+    /**
+     * Mark the start of a tick.
+     */
+    public void beginTick() {
+        this.tickCollisionTests = 0;
+        if (this.enabled && this.allocationBean != null) {
+            this.tickStartBytes = this.allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+
+    /**
+     * Mark the end of a tick and record its counters.
+     */
+    public void endTick() {
+        if (!this.enabled) {
+            return;
+        }
+        this.collisionTests.record(this.tickCollisionTests);
+        if (this.allocationBean != null) {
+            long bytes = this.allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            this.allocatedBytes.record(bytes - this.tickStartBytes);
+        }
+    }
+
+    /**
+     * Get the durations of a phase.
+     * @param phase - one of the phase constants.
+     * @return - histogram of the phase's durations in nanoseconds.
+     */
+    public Histogram getPhase(int phase) {
+        return this.phases[phase];
+    }
+
+    /**
+     * Get the amount of collision tests per tick.
+     * @return - histogram of the collision tests of each tick.
+     */
+    public Histogram getCollisionTests() {
+        return this.collisionTests;
+    }
+
+    /**
+     * Get the bytes allocated by the game thread per tick.
+     * @return - histogram of the allocated bytes of each tick, empty if the JVM can't measure it.
+     */
+    public Histogram getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+
+    /**
+     * Remove all the recorded measurements.
+     */
+    public void reset() {
+        for (Histogram phase : this.phases) {
+            phase.reset();
+        }
+        this.collisionTests.reset();
+        this.allocatedBytes.reset();
+    }
+
+    /**
+     * Describe the measurements, one line for each histogram.
+     * @return - lines of the report.
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < this.phases.length; i++) {
+            Histogram h = this.phases[i];
+            lines.add(PHASE_NAMES[i] + " us - p50: " + h.getPercentile(50) / 1000 + " p99: "
+                    + h.getPercentile(99) / 1000 + " max: " + h.getMax() / 1000);
+        }
+        lines.add("collision tests/tick - " + this.collisionTests);
+        lines.add("allocated bytes/tick - " + this.allocatedBytes);
+        return lines;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(System.lineSeparator(), report());
+    }
+}
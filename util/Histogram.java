@@ -0,0 +1,122 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * This class counts recorded values in buckets of about 12 percent width, for cheap percentiles.
+ * Values below 8 get a bucket each, bigger values share a bucket with values close to them.
+ * Recording doesn't allocate. The class isn't thread safe.
+ */
+public class Histogram {
+    //Every power of two range is split to 2^SUB_BITS buckets.
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Default constructor for an empty histogram.
+     */
+    public Histogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    /**
+     * Record a value, negative values are recorded as 0.
+     * @param value - value to record.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        this.counts[bucket(value)]++;
+        this.count++;
+        this.total += value;
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    /**
+     * Get the amount of recorded values.
+     * @return - number of values recorded since the last reset.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Get the biggest recorded value.
+     * @return - the max value, 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Get the average of the recorded values.
+     * @return - the mean value, 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.total / this.count;
+    }
+
+    /**
+     * Get the value that the given percent of the recorded values are not bigger than.
+     * The result is the top of the bucket the value is in, and never more than the max.
+     * @param percent - percent between 0 and 100.
+     * @return - value of the percentile, 0 if nothing was recorded.
+     */
+    public long getPercentile(double percent) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percent / 100 * this.count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= target) {
+                return Math.min(bucketTop(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Remove all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.total = 0;
+        this.max = 0;
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1));
+        return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketTop(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long top = ((SUB_BUCKETS + sub + 1) << (magnitude - SUB_BITS)) - 1;
+        return top < 0 ? Long.MAX_VALUE : top;
+    }
+
+    @Override
+    public String toString() {
+        return "p50: " + getPercentile(50) + " p99: " + getPercentile(99) + " max: " + this.max;
+    }
+}
@@ -0,0 +1,148 @@
+package util;
+
+/**
+ * This class is a seedable and splittable source of random numbers, using the SplitMix64 generator.
+ * The same seed always gives the same numbers, so a game created with a seed can be played again exactly.
+ * Split gives a new independent source, so every worker thread can have its own without sharing one.
+ * Generating numbers doesn't allocate. The class isn't thread safe.
+ */
+public class RandomSource {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private final long initialSeed;
+    private long gamma;
+    private long seed;
+
+    /**
+     * Constructor for a source with a seed based on the current time.
+     */
+    public RandomSource() {
+        this(mix64(System.nanoTime()) ^ mix64(System.currentTimeMillis() + GOLDEN_GAMMA));
+    }
+
+    /**
+     * Constructor for a source that gives the same numbers for the same seed.
+     * @param seed - the seed.
+     */
+    public RandomSource(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private RandomSource(long seed, long gamma) {
+        this.initialSeed = seed;
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Get the seed the source was created with.
+     * @return - the seed.
+     */
+    public long getSeed() {
+        return this.initialSeed;
+    }
+
+    /**
+     * Get the current state of the source, which gives the numbers the source gives from now on.
+     * @return - the state.
+     */
+    public long getState() {
+        return this.seed;
+    }
+
+    /**
+     * Get the gamma the state is advanced by, which is different for every split source.
+     * @return - the gamma, an odd value.
+     */
+    public long getGamma() {
+        return this.gamma;
+    }
+
+    /**
+     * Put the source back in a state it had, so it gives the same numbers it gave from that state.
+     * The seed the source was created with isn't changed.
+     * @param state - a state given by getState.
+     * @param stateGamma - the gamma given by getGamma with the state.
+     */
+    public void setState(long state, long stateGamma) {
+        if ((stateGamma & 1L) == 0) {
+            throw new IllegalArgumentException("Gamma must be odd");
+        }
+        this.seed = state;
+        this.gamma = stateGamma;
+    }
+
+    /**
+     * Create a new source whose numbers are independent of this one's, and advance this source.
+     * @return - the new source.
+     */
+    public RandomSource split() {
+        return new RandomSource(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /**
+     * Get a random long value.
+     * @return - any long value.
+     */
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * Get a random int value between 0 and the bound.
+     * @param bound - the bound, not included.
+     * @return - int value from 0 to bound - 1.
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive");
+        }
+        int r = mix32(nextSeed());
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+        //Drop the values of the last partial range, so every result is as likely.
+        int u = r >>> 1;
+        while (u + m - (r = u % bound) < 0) {
+            u = mix32(nextSeed()) >>> 1;
+        }
+        return r;
+    }
+
+    /**
+     * Get a random double value between 0 and 1.
+     * @return - double value from 0, included, to 1, not included.
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    private long nextSeed() {
+        this.seed += this.gamma;
+        return this.seed;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    /**
+     * Make an odd gamma with enough bit changes, so the split sequence is well mixed.
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,210 @@
+package util;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * This class holds items in slots ordered by the time they were added, with constant time add and remove.
+ * Every item gets a handle that stays the same while the item is held, even when the slots are compacted.
+ * A removed item leaves an empty slot behind, so removing never shifts the other items and it is safe while
+ * the slots are iterated. The empty slots are dropped by compact, which keeps the order of the items.
+ * Items are compared by identity. The class isn't thread safe.
+ * @param <T> - type of the items.
+ */
+public class SlotMap<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] slots;
+    //Handle of the item in each slot.
+    private int[] slotHandles;
+    //Slot of each handle, -1 for free handles.
+    private int[] handleSlots;
+    private int[] freeHandles;
+    private int freeCount;
+    private int slotCount;
+    private int size;
+    private final Map<T, Integer> handles;
+
+    /**
+     * Default constructor for an empty slot map.
+     */
+    public SlotMap() {
+        this.slots = new Object[INITIAL_CAPACITY];
+        this.slotHandles = new int[INITIAL_CAPACITY];
+        this.handleSlots = new int[0];
+        this.freeHandles = new int[0];
+        this.handles = new IdentityHashMap<>();
+    }
+
+    /**
+     * Add an item after all the items already held.
+     * @param item - item to be added.
+     * @return - handle of the item, or its current handle if it is already held.
+     */
+    public int add(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Slot map can't hold null");
+        }
+        Integer existing = this.handles.get(item);
+        if (existing != null) {
+            return existing;
+        }
+        if (this.slotCount == this.slots.length) {
+            this.slots = Arrays.copyOf(this.slots, this.slots.length * 2);
+            this.slotHandles = Arrays.copyOf(this.slotHandles, this.slotHandles.length * 2);
+        }
+        int handle;
+        if (this.freeCount > 0) {
+            handle = this.freeHandles[--this.freeCount];
+        } else {
+            handle = this.handleSlots.length;
+            this.handleSlots = Arrays.copyOf(this.handleSlots, Math.max(INITIAL_CAPACITY, handle * 2));
+            Arrays.fill(this.handleSlots, handle, this.handleSlots.length, -1);
+            for (int h = this.handleSlots.length - 1; h > handle; h--) {
+                pushFreeHandle(h);
+            }
+        }
+        this.slots[this.slotCount] = item;
+        this.slotHandles[this.slotCount] = handle;
+        this.handleSlots[handle] = this.slotCount;
+        this.slotCount++;
+        this.size++;
+        this.handles.put(item, handle);
+        return handle;
+    }
+
+    /**
+     * Remove an item, leaving its slot empty.
+     * @param item - item to be removed.
+     * @return - true if the item was held, otherwise false.
+     */
+    public boolean remove(T item) {
+        Integer handle = item == null ? null : this.handles.get(item);
+        return handle != null && removeHandle(handle);
+    }
+
+    /**
+     * Remove the item of a handle, leaving its slot empty.
+     * @param handle - handle of the item to be removed.
+     * @return - true if an item was held by the handle, otherwise false.
+     */
+    public boolean removeHandle(int handle) {
+        int slot = slotOf(handle);
+        if (slot < 0) {
+            return false;
+        }
+        this.handles.remove(this.slots[slot]);
+        this.slots[slot] = null;
+        this.handleSlots[handle] = -1;
+        pushFreeHandle(handle);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Check if an item is held.
+     * @param item - item to look for.
+     * @return - true if the item was added and not removed yet.
+     */
+    public boolean contains(T item) {
+        return item != null && this.handles.containsKey(item);
+    }
+
+    /**
+     * Get the handle of an item.
+     * @param item - item to look for.
+     * @return - handle of the item, -1 if it isn't held.
+     */
+    public int handleOf(T item) {
+        Integer handle = item == null ? null : this.handles.get(item);
+        return handle == null ? -1 : handle;
+    }
+
+    /**
+     * Get the slot an item is in. Items added earlier are always in smaller slots.
+     * @param handle - handle of the item.
+     * @return - slot of the item, -1 if the handle holds no item.
+     */
+    public int slotOf(int handle) {
+        if (handle < 0 || handle >= this.handleSlots.length) {
+            return -1;
+        }
+        return this.handleSlots[handle];
+    }
+
+    /**
+     * Get the item of a handle.
+     * @param handle - handle of the item.
+     * @return - the item, null if the handle holds no item.
+     */
+    public T get(int handle) {
+        int slot = slotOf(handle);
+        return slot < 0 ? null : slot(slot);
+    }
+
+    /**
+     * Get the item in a slot.
+     * @param slot - slot index, between 0 and the slot count.
+     * @return - the item, null if the slot is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T slot(int slot) {
+        return (T) this.slots[slot];
+    }
+
+    /**
+     * Get the handle of the item in a slot.
+     * @param slot - slot index, between 0 and the slot count.
+     * @return - handle of the item, -1 if the slot is empty.
+     */
+    public int handleAt(int slot) {
+        return this.slots[slot] == null ? -1 : this.slotHandles[slot];
+    }
+
+    /**
+     * Get the amount of slots, including the empty ones, for iterating the items in order.
+     * @return - number of slots.
+     */
+    public int slotCount() {
+        return this.slotCount;
+    }
+
+    /**
+     * Get the amount of items held.
+     * @return - number of items.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Drop the empty slots once they are at least half of the slots, keeping the order of the items.
+     * Waiting until then keeps the cost of compacting constant per removed item.
+     * Mustn't be called while the slots are iterated.
+     */
+    public void compact() {
+        int empty = this.slotCount - this.size;
+        if (empty == 0 || empty * 2 < this.slotCount) {
+            return;
+        }
+        int next = 0;
+        for (int i = 0; i < this.slotCount; i++) {
+            if (this.slots[i] != null) {
+                this.slots[next] = this.slots[i];
+                this.slotHandles[next] = this.slotHandles[i];
+                this.handleSlots[this.slotHandles[next]] = next;
+                next++;
+            }
+        }
+        Arrays.fill(this.slots, next, this.slotCount, null);
+        this.slotCount = next;
+    }
+
+    private void pushFreeHandle(int handle) {
+        if (this.freeCount == this.freeHandles.length) {
+            this.freeHandles = Arrays.copyOf(this.freeHandles, Math.max(INITIAL_CAPACITY, this.freeCount * 2));
+        }
+        this.freeHandles[this.freeCount++] = handle;
+    }
+}